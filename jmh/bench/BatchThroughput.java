@@ -0,0 +1,167 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.BatchEvaluator;
+import game.BatchEvaluator.Result;
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.Pair;
+
+/**
+ * BatchEvaluator's throughput against a loop calling ComputerPlayer.getNextMove, on positions pulled from seeded random game logs.
+ * Like real logs, the positions repeat: every game passes through the early positions.
+ * Each operation evaluates the whole log; the positions counter reports the rate in positions per second.
+ * batchCold and loop build their evaluator or players inside the operation, so both start with empty tables;
+ * batchWarm reuses an evaluator that has already seen the log, so it measures answering from the cache.
+ * Setup checks that the batch and the loop choose the same moves.
+ * Usage: gradle jmh -Pjmh='BatchThroughput -p threads=1,4'
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchThroughput {
+	
+	private static final long SEED = 42;
+	
+	// 4x4 logs skip the openings, which take seconds each to solve
+	@Param({"3x3k3", "4x4k4"})
+	public String board;
+	
+	@Param({"1"})
+	public int threads;
+	
+	private int rows;
+	private int cols;
+	private int winLength;
+	private long[] positions;
+	private BatchEvaluator warmEvaluator;
+	
+	/**
+	 * Counts the positions evaluated, which JMH reports as a rate next to the operations.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long positions;
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			positions = 0;
+		}
+	}
+	
+	@Setup
+	public void setup() {
+		String[] shape = board.split("[xk]");
+		rows = Integer.parseInt(shape[0]);
+		cols = Integer.parseInt(shape[1]);
+		winLength = Integer.parseInt(shape[2]);
+		boolean small = rows * cols <= 9;
+		positions = gameLogs(small ? 0 : 7, small ? 2000 : 200);
+		
+		int[] expected = loop();
+		warmEvaluator = new BatchEvaluator(rows, cols, winLength, threads);
+		Result[] results = warmEvaluator.evaluate(positions);
+		for (int i = 0; i < results.length; ++i) {
+			if (results[i].getMove() != expected[i]) {
+				throw new IllegalStateException(String.format("batch chose %s, getNextMove chose %d", results[i], expected[i]));
+			}
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		warmEvaluator.shutdown();
+	}
+	
+	@Benchmark
+	public Result[] batchCold(Counters counters) {
+		BatchEvaluator evaluator = new BatchEvaluator(rows, cols, winLength, threads);
+		try {
+			counters.positions += positions.length;
+			return evaluator.evaluate(positions);
+		}
+		finally {
+			evaluator.shutdown();
+		}
+	}
+	
+	@Benchmark
+	public Result[] batchWarm(Counters counters) {
+		counters.positions += positions.length;
+		return warmEvaluator.evaluate(positions);
+	}
+	
+	@Benchmark
+	public int[] loop(Counters counters) {
+		counters.positions += positions.length;
+		return loop();
+	}
+	
+	/**
+	 * @return the cell getNextMove chooses for each logged position
+	 */
+	private int[] loop() {
+		// one player per side, so each keeps its transposition table warm as it would over a game
+		ComputerPlayer[] players = {
+			null,
+			new ComputerPlayer(Board.PLAYER1, Board.PLAYER2, new Board(rows, cols, winLength)),
+			new ComputerPlayer(Board.PLAYER2, Board.PLAYER1, new Board(rows, cols, winLength)),
+		};
+		int[] moves = new int[positions.length];
+		for (int i = 0; i < positions.length; ++i) {
+			BitBoard state = BatchEvaluator.decode(positions[i], rows, cols, winLength);
+			Pair move = players[BatchEvaluator.playerToMove(state)].getNextMove(new Board(state));
+			moves[i] = state.cell(move.getFirst(), move.getSecond());
+		}
+		return moves;
+	}
+	
+	/**
+	 * Plays games of uniformly random moves, and logs the position before every move.
+	 * 
+	 * @param openingMoves the number of moves into each game to start logging
+	 * @return base-3 indices of the logged positions, in the order they were played
+	 */
+	private long[] gameLogs(int openingMoves, int games) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		long[] positions = new long[games * rows * cols];
+		int count = 0;
+		int[] moves = new int[rows * cols];
+		for (int game = 0; game < games; ++game) {
+			BitBoard state = new BitBoard(rows, cols, winLength);
+			int player = BitBoard.PLAYER1;
+			for (int ply = 0; !state.terminal(); ++ply) {
+				if (ply >= openingMoves) {
+					positions[count++] = BatchEvaluator.encode(state);
+				}
+				int empty = state.getEmptyCells(moves);
+				state.place(moves[random.nextInt(empty)], player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+		}
+		return Arrays.copyOf(positions, count);
+	}
+}
@@ -0,0 +1,100 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.PositionCorpus.Position;
+import game.AlphaBetaSearch;
+import game.BitBoard;
+import game.ParallelAlphaBetaSearch;
+import game.TranspositionTable;
+import state.MinimaxSearch;
+import state.NegamaxSearch;
+import state.SearchEngine;
+
+/**
+ * A/B comparison of the exhaustive SearchEngines: each searches every corpus position small enough to solve,
+ * through the same SearchEngine calls, and must choose the same move as MinimaxSearch.
+ * Each engine is created once per trial, and cleared before every search, so none is helped by what it cached in an earlier one;
+ * the measured time includes clearing, which costs the engines with transposition tables a pass over their tables,
+ * so those are sized for the benchmarked boards rather than for play.
+ * Usage: gradle jmh -Pjmh='EngineComparison'
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineComparison {
+	
+	// entries per transposition table; holds every canonical 3x3 position
+	private static final int TABLE_SIZE = 1 << 12;
+	
+	// the positions with few enough empty cells for minimax
+	@Param({"3x3 empty", "3x3 mid", "3x3 late", "4x4 mid", "4x4 late"})
+	public String position;
+	
+	@Param({"minimax", "negamax", "alpha-beta", "alpha-beta+tt", "parallel"})
+	public String engineName;
+	
+	private BitBoard state;
+	private int player;
+	private SearchEngine<? super BitBoard> engine;
+	
+	@Setup
+	public void setup() {
+		Position corpusPosition = PositionCorpus.getPosition(position);
+		state = corpusPosition.toBitBoard();
+		player = corpusPosition.getPlayerToMove();
+		engine = createEngine(engineName);
+		
+		int expected = new MinimaxSearch().search(state, player);
+		int move = engine.search(state, player);
+		if (move != expected) {
+			throw new IllegalStateException(String.format("%s chose %d on %s, but minimax chose %d", engineName, move, position, expected));
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		if (engine instanceof ParallelAlphaBetaSearch) {
+			((ParallelAlphaBetaSearch)engine).shutdown();
+		}
+	}
+	
+	@Benchmark
+	public int search() {
+		engine.clear();
+		return engine.search(state, player);
+	}
+	
+	private static SearchEngine<? super BitBoard> createEngine(String name) {
+		switch (name) {
+			case "minimax":
+				return new MinimaxSearch();
+			case "negamax":
+				return new NegamaxSearch();
+			case "alpha-beta":
+				return new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), null, false);
+			case "alpha-beta+tt":
+				return new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(TABLE_SIZE), true);
+			case "parallel":
+				return new ParallelAlphaBetaSearch(Runtime.getRuntime().availableProcessors(), 2, TABLE_SIZE);
+			default:
+				throw new IllegalArgumentException(String.format("unknown engine \"%s\"", name));
+		}
+	}
+}
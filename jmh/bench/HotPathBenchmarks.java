@@ -0,0 +1,212 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.PositionCorpus.Position;
+import game.AlphaBetaSearch;
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.Pair;
+import game.ParallelAlphaBetaSearch;
+import game.TranspositionTable;
+
+/**
+ * Baseline microbenchmarks of the board operations and move selection every performance change is judged against:
+ * placing (and undoing) a move, checking for the end of the game, copying a Board, choosing the computer's move,
+ * searching with a reused engine, which should allocate nothing per position visited,
+ * and hashing and comparing Pairs. Each runs over the PositionCorpus positions named in its @Param.
+ * Usage: gradle jmh -Pjmh='HotPathBenchmarks -prof gc'
+ * where -prof gc reports the bytes allocated per operation (gc.alloc.rate.norm), across every thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmarks {
+	
+	/**
+	 * A position with a cursor over its empty cells, so successive operations play different moves.
+	 */
+	@State(Scope.Thread)
+	public static class Cells {
+		@Param({"3x3 empty", "3x3 mid", "3x3 late", "4x4 empty", "4x4 mid", "4x4 late", "7x7k4 empty", "7x7k4 mid", "15x15k5 empty", "15x15k5 mid"})
+		public String position;
+		
+		BitBoard state;
+		Board board;
+		String icon;
+		int player;
+		int[] empty;
+		int index;
+		
+		@Setup
+		public void setup() {
+			Position corpusPosition = PositionCorpus.getPosition(position);
+			state = corpusPosition.toBitBoard();
+			board = corpusPosition.toBoard();
+			player = corpusPosition.getPlayerToMove();
+			icon = Board.toIcon(player);
+			empty = new int[state.getCells() - state.size()];
+			state.getEmptyCells(empty);
+		}
+		
+		int nextCell() {
+			int cell = empty[index];
+			index = index + 1 == empty.length ? 0 : index + 1;
+			return cell;
+		}
+	}
+	
+	/**
+	 * A ComputerPlayer choosing moves on one of the positions small enough to search exhaustively.
+	 */
+	@State(Scope.Thread)
+	public static class Computer {
+		@Param({"3x3 empty", "3x3 mid", "3x3 late"})
+		public String position;
+		
+		@Param({"ALPHA_BETA", "DEPTH_FIRST"})
+		public ComputerPlayer.SearchMode mode;
+		
+		Board board;
+		ComputerPlayer computer;
+		
+		@Setup
+		public void setup() {
+			board = PositionCorpus.getPosition(position).toBoard();
+			String icon = Board.toIcon(PositionCorpus.getPosition(position).getPlayerToMove());
+			computer = new ComputerPlayer(icon, Board.getOtherPlayer(icon), board, mode);
+		}
+	}
+	
+	/**
+	 * Search engines reused from one operation to the next, on one of the positions small enough to search exhaustively.
+	 */
+	@State(Scope.Thread)
+	public static class Engines {
+		@Param({"3x3 empty", "3x3 mid", "3x3 late", "4x4 mid"})
+		public String position;
+		
+		BitBoard state;
+		int player;
+		TranspositionTable table;
+		AlphaBetaSearch search;
+		ParallelAlphaBetaSearch parallel;
+		
+		@Setup
+		public void setup() {
+			Position corpusPosition = PositionCorpus.getPosition(position);
+			state = corpusPosition.toBitBoard();
+			player = corpusPosition.getPlayerToMove();
+			table = new TranspositionTable(1 << 16);
+			search = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), table, true);
+			parallel = new ParallelAlphaBetaSearch();
+		}
+		
+		@TearDown
+		public void tearDown() {
+			parallel.shutdown();
+		}
+	}
+	
+	@State(Scope.Thread)
+	public static class Pairs {
+		Pair[] pairs;
+		int index;
+		
+		@Setup
+		public void setup() {
+			pairs = new Pair[64];
+			for (int i = 0; i < pairs.length; ++i) {
+				pairs[i] = new Pair(i / 8, i % 8);
+			}
+		}
+	}
+	
+	@Benchmark
+	public void bitBoardPlaceUndo(Cells cells, Blackhole blackhole) {
+		int cell = cells.nextCell();
+		cells.state.place(cell, cells.player);
+		blackhole.consume(cells.state.winner());
+		cells.state.undo(cell);
+	}
+	
+	/**
+	 * Includes the copy, since a Board cannot undo; compare against boardCopy.
+	 */
+	@Benchmark
+	public boolean boardPlace(Cells cells) {
+		int cell = cells.nextCell();
+		Board copy = new Board(cells.board);
+		return copy.place(cell / cells.board.getCols(), cell % cells.board.getCols(), cells.icon);
+	}
+	
+	@Benchmark
+	public boolean boardTerminal(Cells cells) {
+		return cells.board.terminal();
+	}
+	
+	@Benchmark
+	public Board boardCopy(Cells cells) {
+		return new Board(cells.board);
+	}
+	
+	/**
+	 * Starts every search cold, rather than measuring transposition table hits.
+	 */
+	@Benchmark
+	public void computerGetNextMove(Computer computer, Blackhole blackhole) {
+		if (computer.computer.getTranspositionTable() != null) {
+			computer.computer.getTranspositionTable().clear();
+		}
+		Pair move = computer.computer.getNextMove(computer.board);
+		blackhole.consume(move.getFirst());
+		blackhole.consume(move.getSecond());
+	}
+	
+	/**
+	 * Clears the table first, so every search visits the same positions.
+	 */
+	@Benchmark
+	public int alphaBetaSearch(Engines engines) {
+		engines.table.clear();
+		return engines.search.search(engines.state, engines.player);
+	}
+	
+	/**
+	 * The workers' tables stay warm between searches, as they do between a player's moves.
+	 * Allocates only a task and a board copy per move at the nodes split above the sequential cutoff,
+	 * so its bytes per operation should track the number of moves near the root, not the number of positions searched.
+	 */
+	@Benchmark
+	public int parallelAlphaBetaSearch(Engines engines) {
+		return engines.parallel.search(engines.state, engines.player);
+	}
+	
+	@Benchmark
+	public int pairHashCode(Pairs pairs) {
+		return pairs.pairs[pairs.index++ & (pairs.pairs.length - 1)].hashCode();
+	}
+	
+	@Benchmark
+	public boolean pairEquals(Pairs pairs) {
+		int i = pairs.index++;
+		return pairs.pairs[i & (pairs.pairs.length - 1)].equals(pairs.pairs[(i * 7) & (pairs.pairs.length - 1)]);
+	}
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.BitBoard;
+import game.MonteCarloSearch;
+
+/**
+ * MonteCarloSearch playout throughput from the empty board, in playouts per second, on boards from 3x3 to 15x15.
+ * Each operation is a search of PLAYOUTS playouts from a cleared tree, so tree growth is measured along with the playouts.
+ * Usage: gradle jmh -Pjmh='MonteCarloBenchmark -p threads=1,4'
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonteCarloBenchmark {
+	
+	private static final int PLAYOUTS = 2000;
+	
+	@Param({"3x3k3", "4x4k4", "7x7k4", "9x9k5", "15x15k5"})
+	public String board;
+	
+	@Param({"1"})
+	public int threads;
+	
+	private BitBoard state;
+	private MonteCarloSearch search;
+	
+	@Setup
+	public void setup() {
+		String[] shape = board.split("[xk]");
+		state = new BitBoard(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]), Integer.parseInt(shape[2]));
+		search = new MonteCarloSearch(threads, MonteCarloSearch.UNLIMITED, PLAYOUTS, 1);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		search.shutdown();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(PLAYOUTS)
+	public int playouts() {
+		search.clear();
+		return search.search(state, BitBoard.PLAYER1);
+	}
+}
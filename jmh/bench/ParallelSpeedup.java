@@ -0,0 +1,83 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.AlphaBetaSearch;
+import game.BitBoard;
+import game.ParallelAlphaBetaSearch;
+import game.TranspositionTable;
+
+/**
+ * Time to solve an empty board with ParallelAlphaBetaSearch on a given number of worker threads,
+ * next to the sequential AlphaBetaSearch; the speedup on N threads is the sequential time over the parallel one.
+ * Both engines are created once per trial and cleared before every search, so no search starts with a warm table.
+ * Setup checks that the parallel search chooses the same move as the sequential one.
+ * Usage: gradle jmh -Pjmh='ParallelSpeedup -p threads=1,2,4,8'
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSpeedup {
+	
+	private static final int TABLE_SIZE = 1 << 20;
+	
+	@Param({"3x3", "4x4"})
+	public String board;
+	
+	@Param({"1"})
+	public int threads;
+	
+	@Param({"3"})
+	public int sequentialCutoff;
+	
+	private BitBoard state;
+	private AlphaBetaSearch sequential;
+	private ParallelAlphaBetaSearch parallel;
+	
+	@Setup
+	public void setup() {
+		String[] shape = board.split("x");
+		state = new BitBoard(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]));
+		sequential = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(TABLE_SIZE), true);
+		parallel = new ParallelAlphaBetaSearch(threads, sequentialCutoff, TABLE_SIZE);
+		
+		int expected = sequential();
+		int move = parallel();
+		if (move != expected) {
+			throw new IllegalStateException(String.format("%d threads chose %d, sequential chose %d", threads, move, expected));
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		parallel.shutdown();
+	}
+	
+	@Benchmark
+	public int sequential() {
+		sequential.clear();
+		return sequential.search(new BitBoard(state), BitBoard.PLAYER1);
+	}
+	
+	@Benchmark
+	public int parallel() {
+		parallel.clear();
+		return parallel.search(state, BitBoard.PLAYER1);
+	}
+}
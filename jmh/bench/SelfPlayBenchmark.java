@@ -0,0 +1,58 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import match.AgentFactory;
+import match.MatchRunner;
+import match.MatchStats;
+
+/**
+ * Headless self-play throughput on 3x3, in games per second, for a few pairings of the agents AgentFactory describes.
+ * Each operation is a batch of games on a fresh MatchRunner, so agents are created, and their tables start cold, per batch.
+ * Usage: gradle jmh -Pjmh='SelfPlayBenchmark -p threads=1,4'
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelfPlayBenchmark {
+	
+	private static final int GAMES = 100;
+	
+	@Param({"random random", "greedy random", "engine random", "engine greedy"})
+	public String agents;
+	
+	@Param({"1"})
+	public int threads;
+	
+	private AgentFactory factoryA;
+	private AgentFactory factoryB;
+	
+	@Setup
+	public void setup() {
+		String[] descriptions = agents.split(" ");
+		factoryA = AgentFactory.parse(descriptions[0]);
+		factoryB = AgentFactory.parse(descriptions[1]);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(GAMES)
+	public MatchStats games() throws InterruptedException {
+		return new MatchRunner(factoryA, factoryB, threads).run(GAMES);
+	}
+}
@@ -0,0 +1,112 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import game.BitBoard;
+import game.GameRecordReader;
+import game.GameRecordWriter;
+import game.PositionCodec;
+
+/**
+ * Measures writing and scanning game-record files: appends seeded random games, then streams them back,
+ * rebuilding every position of every game as PositionCodec words without creating a board.
+ * Checks along the way that the codec round-trips and agrees with replaying the moves on a BitBoard.
+ * Usage: GameRecordScan [games [rows cols [k [path]]]]
+ * The file is deleted afterwards unless a path is given.
+ */
+public class GameRecordScan {
+	
+	private static final long SEED = 42;
+	// every CHECK_INTERVAL-th game is checked against a BitBoard replay
+	private static final int CHECK_INTERVAL = 1000;
+	
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rows = args.length > 2 ? Integer.parseInt(args[1]) : 3;
+		int cols = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int winLength = args.length > 3 ? Integer.parseInt(args[3]) : Math.min(rows, cols);
+		Path path = args.length > 4 ? Paths.get(args[4]) : Files.createTempFile("games", ".ttgr");
+		Files.deleteIfExists(path);
+		
+		try {
+			long start = System.nanoTime();
+			try (GameRecordWriter writer = new GameRecordWriter(path, rows, cols, winLength)) {
+				SplittableRandom random = new SplittableRandom(SEED);
+				int[] empty = new int[rows * cols];
+				int[] moves = new int[rows * cols];
+				for (int game = 0; game < games; ++game) {
+					BitBoard state = new BitBoard(rows, cols, winLength);
+					int player = BitBoard.PLAYER1;
+					int count = 0;
+					while (!state.terminal()) {
+						int move = empty[random.nextInt(state.getEmptyCells(empty))];
+						state.place(move, player);
+						moves[count++] = move;
+						player = BitBoard.getOtherPlayer(player);
+					}
+					writer.append(moves, count, state.winner());
+				}
+			}
+			report("write", start, games, Files.size(path));
+			
+			start = System.nanoTime();
+			long[] wins = new long[3];
+			long positions = 0;
+			long checksum = 0;
+			long[] words = new long[PositionCodec.wordsFor(rows * cols)];
+			try (GameRecordReader reader = new GameRecordReader(path)) {
+				while (reader.next()) {
+					++wins[reader.getWinner()];
+					// each position is the last one plus a mark
+					reader.getPosition(0, words, 0);
+					int player = BitBoard.PLAYER1;
+					for (int ply = 0; ply < reader.getMoveCount(); ++ply) {
+						PositionCodec.set(words, 0, reader.getMove(ply), player);
+						player = BitBoard.getOtherPlayer(player);
+						checksum += words[0];
+					}
+					positions += reader.getMoveCount() + 1;
+					if (reader.getRecords() % CHECK_INTERVAL == 0) {
+						check(reader, words);
+					}
+				}
+				if (reader.getRecords() != games) {
+					throw new IllegalStateException(String.format("wrote %d games, read %d", games, reader.getRecords()));
+				}
+			}
+			report("scan", start, games, Files.size(path));
+			System.out.printf("  %d positions, X won %d, O won %d, drawn %d (checksum %d)\n",
+					positions, wins[BitBoard.PLAYER1], wins[BitBoard.PLAYER2], wins[BitBoard.EMPTY], checksum);
+		}
+		finally {
+			if (args.length <= 4) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+	
+	/**
+	 * Checks every position of the reader's current game against a BitBoard replay, both ways through the codec.
+	 */
+	private static void check(GameRecordReader reader, long[] words) {
+		for (int plies = 0; plies <= reader.getMoveCount(); ++plies) {
+			BitBoard state = reader.getBitBoard(plies);
+			reader.getPosition(plies, words, 0);
+			long[] encoded = PositionCodec.encode(state);
+			BitBoard decoded = PositionCodec.decode(words, 0, reader.getRows(), reader.getCols(), reader.getWinLength());
+			if (!Arrays.equals(words, encoded) || !decoded.equals(state) || decoded.getHash() != state.getHash()) {
+				throw new IllegalStateException(String.format("codec disagrees with the replay of record %d at ply %d", reader.getRecords(), plies));
+			}
+		}
+	}
+	
+	private static void report(String label, long start, int games, long bytes) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-6s %d games, %d bytes: %.2fs, %.0f games/s, %.1f MB/s\n", label, games, bytes, seconds, games / seconds, bytes / seconds / 1e6);
+	}
+}
@@ -0,0 +1,112 @@
+package bench;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import bench.PositionCorpus.Position;
+import game.Board;
+import game.CompactGameTree;
+import game.ComputerPlayer;
+import game.LazyTicTacToeGameTreeNode;
+import game.TicTacToeGameTreeNode;
+import state.GameTreeNode;
+
+/**
+ * Measures the memory a complete game tree takes per node, stored as TicTacToeGameTreeNode objects (inspectGameTree)
+ * and as a CompactGameTree (inspectCompactGameTree), for every corpus position whose tree is small enough to build,
+ * next to what a lazily generated tree ranked with its subtrees released (inspectLazyGameTree) still holds afterwards;
+ * the lazy tree's ranks at the root are checked against the full tree's.
+ * Sizes are the growth of the live heap after a full collection, so run with a heap large enough for the object trees.
+ * Usage: GameTreeFootprint [max empty cells]
+ */
+public class GameTreeFootprint {
+	
+	private static final int DEFAULT_MAX_EMPTY = 10;
+	
+	// keeps the tree being measured reachable until the heap has been sampled
+	private static Object retained;
+	
+	public static void main(String[] args) {
+		int maxEmpty = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_EMPTY;
+		System.out.printf("%-16s %12s %14s %14s %12s %12s %12s %12s\n", "position", "nodes", "objects(B/n)", "compact(B/n)", "objects(ms)", "compact(ms)", "lazy(B)", "lazy(ms)");
+		for (Position position : PositionCorpus.getPositions()) {
+			Board board = position.toBoard();
+			if (board.getRows() * board.getCols() - board.size() > maxEmpty) {
+				continue;
+			}
+			String icon = Board.toIcon(position.getPlayerToMove());
+			ComputerPlayer computer = new ComputerPlayer(icon, Board.getOtherPlayer(icon), board, ComputerPlayer.SearchMode.GAME_TREE);
+			
+			long before = usedHeap();
+			long start = System.nanoTime();
+			retained = computer.inspectGameTree(board);
+			double objectMillis = (System.nanoTime() - start) / 1e6;
+			long objectBytes = usedHeap() - before;
+			long nodes = countNodes((GameTreeNode)retained);
+			TicTacToeGameTreeNode objectTree = (TicTacToeGameTreeNode)retained;
+			retained = null;
+			
+			before = usedHeap();
+			start = System.nanoTime();
+			LazyTicTacToeGameTreeNode lazyTree = computer.inspectLazyGameTree(board, true);
+			retained = lazyTree;
+			double lazyMillis = (System.nanoTime() - start) / 1e6;
+			long lazyBytes = usedHeap() - before;
+			retained = null;
+			checkRanks(position, objectTree, lazyTree);
+			objectTree = null;
+			
+			before = usedHeap();
+			start = System.nanoTime();
+			CompactGameTree compactTree = computer.inspectCompactGameTree(board);
+			retained = compactTree;
+			double compactMillis = (System.nanoTime() - start) / 1e6;
+			long compactBytes = usedHeap() - before;
+			retained = null;
+			if (compactTree.size() != nodes) {
+				throw new IllegalStateException(String.format("%s: %d compact nodes, expected %d", position, compactTree.size(), nodes));
+			}
+			
+			System.out.printf("%-16s %12d %14.1f %14.1f %12.1f %12.1f %12d %12.1f\n", position, nodes,
+					(double)objectBytes / nodes, (double)compactBytes / nodes, objectMillis, compactMillis, lazyBytes, lazyMillis);
+		}
+	}
+	
+	private static long countNodes(GameTreeNode root) {
+		long count = 0;
+		Deque<GameTreeNode> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			GameTreeNode node = stack.pop();
+			++count;
+			for (Iterator<GameTreeNode> it = node.childIterator(); it.hasNext();) {
+				stack.push(it.next());
+			}
+		}
+		return count;
+	}
+	
+	private static void checkRanks(Position position, TicTacToeGameTreeNode expected, TicTacToeGameTreeNode actual) {
+		Iterator<GameTreeNode> expectedChildren = expected.childIterator();
+		Iterator<GameTreeNode> actualChildren = actual.childIterator();
+		while (expectedChildren.hasNext() && actualChildren.hasNext()) {
+			TicTacToeGameTreeNode e = (TicTacToeGameTreeNode)expectedChildren.next();
+			TicTacToeGameTreeNode a = (TicTacToeGameTreeNode)actualChildren.next();
+			if (e.getMove() != a.getMove() || e.getRank() != a.getRank()) {
+				throw new IllegalStateException(String.format("%s: lazy child %s, expected %s", position, a, e));
+			}
+		}
+		if (expectedChildren.hasNext() || actualChildren.hasNext() || expected.getRank() != actual.getRank()) {
+			throw new IllegalStateException(String.format("%s: lazy root %s, expected %s", position, actual, expected));
+		}
+	}
+	
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; ++i) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
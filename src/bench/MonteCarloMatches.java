@@ -0,0 +1,32 @@
+package bench;
+
+import match.AgentFactory;
+import match.MatchRunner;
+import match.MatchStats;
+
+/**
+ * Plays MonteCarloSearch against minimax with the same time per move, on boards from 3x3 to 15x15:
+ * an exhaustive ALPHA_BETA search on 3x3, and ITERATIVE_DEEPENING on larger boards.
+ * Playout throughput is measured by the MonteCarloBenchmark JMH benchmark.
+ * Usage: MonteCarloMatches [millis per move [games]]
+ */
+public class MonteCarloMatches {
+	
+	private static final int[][] BOARDS = {{3, 3, 3}, {4, 4, 4}, {7, 7, 4}, {9, 9, 5}, {15, 15, 5}};
+	
+	public static void main(String[] args) throws InterruptedException {
+		long millis = args.length > 0 ? Long.parseLong(args[0]) : 100;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		
+		System.out.printf("MONTE_CARLO against minimax, %dms per move, %d games each (A plays X in half of them)\n", millis, games);
+		System.out.printf("  %-10s %-30s %8s %8s %8s\n", "board", "opponent", "A wins", "B wins", "draws");
+		for (int[] board : BOARDS) {
+			String opponent = board[0] * board[1] <= 9 ? "engine:ALPHA_BETA" : "engine:ITERATIVE_DEEPENING:" + millis;
+			MatchRunner runner = new MatchRunner(AgentFactory.parse("engine:MONTE_CARLO:" + millis), AgentFactory.parse(opponent),
+					board[0], board[1], board[2], 1, 1);
+			MatchStats stats = runner.run(games);
+			String name = String.format("%dx%d k=%d", board[0], board[1], board[2]);
+			System.out.printf("  %-10s %-30s %8d %8d %8d\n", name, opponent, stats.getWinsA(), stats.getWinsB(), stats.getDraws());
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import game.BitBoard;
+import game.Board;
+
+/**
+ * Fixed set of positions benchmarks are run against: empty, mid-game and near-terminal positions on several board sizes.
+ * Larger boards are filled by a seeded random playout, so every run sees exactly the same positions.
+ */
+public class PositionCorpus {
+	
+	/**
+	 * A named position: a board size, win length, and the cells played on it in order, starting with X.
+	 */
+	public static class Position {
+		private final String name;
+		private final int rows;
+		private final int cols;
+		private final int winLength;
+		private final int[] moves;
+		
+		public Position(String name, int rows, int cols, int winLength, int... moves) {
+			this.name = name;
+			this.rows = rows;
+			this.cols = cols;
+			this.winLength = winLength;
+			this.moves = moves;
+		}
+		
+		@Override
+		public String toString() {
+			return name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return a new BitBoard with every move of this position played
+		 */
+		public BitBoard toBitBoard() {
+			BitBoard state = new BitBoard(rows, cols, winLength);
+			int player = BitBoard.PLAYER1;
+			for (int move : moves) {
+				state.place(move, player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+			return state;
+		}
+		
+		/**
+		 * @return a new Board with every move of this position played
+		 */
+		public Board toBoard() {
+			return new Board(toBitBoard());
+		}
+		
+		/**
+		 * @return the player whose turn it is
+		 */
+		public int getPlayerToMove() {
+			return moves.length % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+		}
+		
+		public int getCells() {
+			return rows * cols;
+		}
+	}
+	
+	private static final List<Position> POSITIONS;
+	
+	static {
+		List<Position> positions = new ArrayList<>();
+		positions.add(new Position("3x3 empty", 3, 3, 3));
+		positions.add(new Position("3x3 mid", 3, 3, 3, 4, 0, 8));
+		positions.add(new Position("3x3 late", 3, 3, 3, 0, 4, 8, 2, 6));
+		positions.add(new Position("4x4 empty", 4, 4, 4));
+		positions.add(playout("4x4 mid", 4, 4, 4, 6));
+		positions.add(playout("4x4 late", 4, 4, 4, 11));
+		positions.add(new Position("7x7k4 empty", 7, 7, 4));
+		positions.add(playout("7x7k4 mid", 7, 7, 4, 16));
+		positions.add(new Position("15x15k5 empty", 15, 15, 5));
+		positions.add(playout("15x15k5 mid", 15, 15, 5, 40));
+		POSITIONS = Collections.unmodifiableList(positions);
+	}
+	
+	/**
+	 * @return every position in the corpus
+	 */
+	public static List<Position> getPositions() {
+		return POSITIONS;
+	}
+	
+	/**
+	 * @param name the name of a corpus position, e.g. "3x3 mid"
+	 * @return the position
+	 * @throws IllegalArgumentException if the corpus has no such position
+	 */
+	public static Position getPosition(String name) {
+		for (Position position : POSITIONS) {
+			if (position.getName().equals(name)) {
+				return position;
+			}
+		}
+		throw new IllegalArgumentException(String.format("no corpus position \"%s\"", name));
+	}
+	
+	/**
+	 * @param maxCells the largest board size to include
+	 * @return every position in the corpus on a board of at most maxCells cells
+	 */
+	public static List<Position> getPositions(int maxCells) {
+		List<Position> positions = new ArrayList<>();
+		for (Position position : POSITIONS) {
+			if (position.getCells() <= maxCells) {
+				positions.add(position);
+			}
+		}
+		return positions;
+	}
+	
+	/**
+	 * Plays count random moves on an empty board, never ending the game.
+	 */
+	private static Position playout(String name, int rows, int cols, int winLength, int count) {
+		Random random = new Random(name.hashCode());
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		int[] moves = new int[count];
+		int player = BitBoard.PLAYER1;
+		for (int i = 0; i < count; ++i) {
+			int move;
+			do {
+				move = random.nextInt(state.getCells());
+				if (state.isEmpty(move)) {
+					state.place(move, player);
+					if (!state.terminal()) {
+						break;
+					}
+					state.undo(move);
+				}
+			} while (true);
+			moves[i] = move;
+			player = BitBoard.getOtherPlayer(player);
+		}
+		return new Position(name, rows, cols, winLength, moves);
+	}
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import java.util.Arrays;
+
+import game.Board;
+import game.ComputerPlayer;
+import game.Pair;
+
+/**
+ * Times every computer move of a full game in GAME_TREE mode,
+ * once with a fresh ComputerPlayer per move (rebuilding the tree every turn, as before),
+ * and once with a single ComputerPlayer that re-roots its tree between turns.
+ * The opponent is a perfect depth-first player, so both games follow the same moves.
+ */
+public class ReRootingTimings {
+	
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		for (String first : new String[] {Board.PLAYER1, Board.PLAYER2}) {
+			System.out.printf("computer is %s, %s moves first\n", Board.PLAYER1, first);
+			double[] fresh = playGame(first, false);
+			double[] reused = playGame(first, true);
+			for (int round = 1; round < ROUNDS; ++round) {
+				fresh = min(fresh, playGame(first, false));
+				reused = min(reused, playGame(first, true));
+			}
+			System.out.printf("  %-6s %12s %12s\n", "move", "rebuild(ms)", "re-root(ms)");
+			for (int i = 0; i < fresh.length; ++i) {
+				System.out.printf("  %-6d %12.3f %12.3f\n", i + 1, fresh[i], reused[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Plays one game, timing each of the computer's moves.
+	 * 
+	 * @param first the icon of the player that moves first
+	 * @param persistent true to keep one ComputerPlayer for the whole game
+	 * @return milliseconds spent on each computer move
+	 */
+	private static double[] playGame(String first, boolean persistent) {
+		Board board = new Board();
+		String computerIcon = Board.PLAYER1;
+		String opponentIcon = Board.PLAYER2;
+		ComputerPlayer computer = new ComputerPlayer(computerIcon, opponentIcon, board, ComputerPlayer.SearchMode.GAME_TREE);
+		ComputerPlayer opponent = new ComputerPlayer(opponentIcon, computerIcon, board, ComputerPlayer.SearchMode.DEPTH_FIRST);
+		double[] timings = new double[(board.getRows() * board.getCols() + 1) / 2];
+		int moves = 0;
+		String player = first;
+		
+		while (!board.terminal()) {
+			Pair move;
+			if (player.equals(computerIcon)) {
+				if (!persistent) {
+					computer = new ComputerPlayer(computerIcon, opponentIcon, board, ComputerPlayer.SearchMode.GAME_TREE);
+				}
+				long start = System.nanoTime();
+				move = computer.getNextMove(board);
+				timings[moves++] = (System.nanoTime() - start) / 1e6;
+			}
+			else {
+				move = opponent.getNextMove(board);
+			}
+			board.place(move.getFirst(), move.getSecond(), player);
+			player = Board.getOtherPlayer(player);
+		}
+		
+		return Arrays.copyOf(timings, moves);
+	}
+	
+	private static double[] min(double[] a, double[] b) {
+		double[] result = new double[Math.min(a.length, b.length)];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = Math.min(a[i], b[i]);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,123 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import game.AlphaBetaSearch;
+import game.BatchEvaluator;
+import game.BitBoard;
+import game.Board;
+import game.CompactGameTree;
+import game.Evaluator;
+import game.RetrogradeSolver;
+import game.Tablebase;
+import game.TranspositionTable;
+
+/**
+ * Measures RetrogradeSolver on 1..N worker threads, next to building the whole game tree forward,
+ * and checks its values: every 3x3 position against a Tablebase, and sampled positions of larger boards against AlphaBetaSearch.
+ * Usage: RetrogradeSolve [maxThreads]
+ */
+public class RetrogradeSolve {
+	
+	private static final long SEED = 42;
+	private static final int SAMPLES = 200;
+	private static final int ROUNDS = 3;
+	
+	public static void main(String[] args) throws IOException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		System.out.printf("available processors: %d\n", Runtime.getRuntime().availableProcessors());
+		
+		long start = System.nanoTime();
+		CompactGameTree tree = new CompactGameTree(new Board(), Board.PLAYER1);
+		System.out.printf("3x3 k=3 forward game tree: %d nodes, %d bytes, %.1f ms\n", tree.size(), tree.getStorageBytes(), (System.nanoTime() - start) / 1e6);
+		
+		checkTablebase(new RetrogradeSolver(3, 3, 3, maxThreads).solve());
+		for (int[] size : new int[][] {{3, 3, 3}, {3, 4, 3}, {4, 4, 3}, {4, 4, 4}}) {
+			RetrogradeSolver solver = null;
+			System.out.printf("%dx%d k=%d\n", size[0], size[1], size[2]);
+			for (int threads = 1; threads <= maxThreads; ++threads) {
+				double best = Double.MAX_VALUE;
+				for (int round = 0; round < ROUNDS; ++round) {
+					start = System.nanoTime();
+					solver = new RetrogradeSolver(size[0], size[1], size[2], threads).solve();
+					best = Math.min(best, (System.nanoTime() - start) / 1e6);
+				}
+				System.out.printf("  %d threads: %.1f ms, %d positions, %d byte table\n", threads, best, solver.getPositions(), solver.getTableBytes());
+			}
+			checkSearch(solver, size[0], size[1], size[2]);
+		}
+	}
+	
+	/**
+	 * Checks the value of every 3x3 position with X to move first against a generated tablebase.
+	 */
+	private static void checkTablebase(RetrogradeSolver solver) throws IOException {
+		Path path = Files.createTempFile("tictactoe", ".tb");
+		Files.delete(path);
+		try {
+			Tablebase tablebase = Tablebase.openOrGenerate(path);
+			int checked = 0;
+			for (long position = 0; position < solver.getTableBytes(); ++position) {
+				BitBoard state;
+				int value;
+				try {
+					state = BatchEvaluator.decode(position, 3, 3, 3);
+					value = solver.getValue(position);
+				}
+				catch (IllegalArgumentException e) {
+					continue;
+				}
+				int player = BatchEvaluator.playerToMove(state);
+				int expected = state.terminal() ? state.utility(player) : tablebase.getValue(state, player);
+				if (value != expected) {
+					throw new IllegalStateException(String.format("position %d is worth %d, but the tablebase says %d", position, value, expected));
+				}
+				++checked;
+			}
+			System.out.printf("3x3 k=3: %d positions agree with the tablebase\n", checked);
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	/**
+	 * Checks the value, distance and best move of positions along random games against an exact alpha-beta search.
+	 */
+	private static void checkSearch(RetrogradeSolver solver, int rows, int cols, int winLength) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		AlphaBetaSearch search = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(1 << 20), true);
+		int[] moves = new int[rows * cols];
+		int checked = 0;
+		for (int sample = 0; sample < SAMPLES; ++sample) {
+			BitBoard state = new BitBoard(rows, cols, winLength);
+			// start far enough into the game for the search to be quick
+			int plies = rows * cols / 2 + random.nextInt(rows * cols / 2);
+			for (int ply = 0; ply < plies && !state.terminal(); ++ply) {
+				state.place(moves[random.nextInt(state.getEmptyCells(moves))], BatchEvaluator.playerToMove(state));
+			}
+			if (state.terminal()) {
+				continue;
+			}
+			long position = BatchEvaluator.encode(state);
+			int player = BatchEvaluator.playerToMove(state);
+			search.search(state, player);
+			int expected = Integer.signum(search.getBestScore() / Evaluator.WIN_SCORE);
+			if (solver.getValue(position) != expected) {
+				throw new IllegalStateException(String.format("%s is worth %d, but alpha-beta says %d", state, solver.getValue(position), expected));
+			}
+			
+			// the best move must keep the value, one move closer to the end
+			state.place(solver.getBestMove(position), player);
+			long after = BatchEvaluator.encode(state);
+			if (-solver.getValue(after) != expected || solver.getDistance(after) != solver.getDistance(position) - 1) {
+				throw new IllegalStateException(String.format("the best move from %s does not keep its value", state));
+			}
+			++checked;
+		}
+		System.out.printf("  %d sampled positions agree with alpha-beta\n", checked);
+	}
+}
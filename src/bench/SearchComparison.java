@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.Arrays;
+
+import game.AlphaBetaSearch;
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.MoveOrdering;
+import game.Pair;
+import game.PositionalOrdering;
+import game.TranspositionTable;
+import game.Zobrist;
+
+/**
+ * Compares how many positions each ComputerPlayer.SearchMode visits on the same boards,
+ * with and without a transposition table and symmetry reduction,
+ * and checks that alpha-beta picks the same move as exhaustive min-max.
+ */
+public class SearchComparison {
+	
+	/**
+	 * Move sequences (row, col, row, col, ...) to reach each compared position; X always moves first.
+	 */
+	private static final int[][] POSITIONS = {
+		{},
+		{1, 1},
+		{0, 0},
+		{0, 0, 1, 1},
+		{0, 1, 1, 1, 2, 2},
+		{0, 0, 1, 1, 2, 2, 0, 2, 2, 0},
+	};
+
+	public static void main(String[] args) {
+		System.out.printf("%-22s %-5s %8s %8s %8s %8s %8s %8s %8s %7s %8s  %s\n", "moves", "turn", "tree", "minmax", "negamax", "ab-plain", "ab", "ab+tt", "ab+sym", "ratio", "deduped", "table");
+		for (int[] moves : POSITIONS) {
+			Board board = new Board();
+			String player = Board.PLAYER1;
+			for (int i = 0; i < moves.length; i += 2) {
+				board.place(moves[i], moves[i + 1], player);
+				player = Board.getOtherPlayer(player);
+			}
+			
+			long tree = countNodes(board, player, ComputerPlayer.SearchMode.GAME_TREE, AlphaBetaSearch.defaultOrdering(), null, null);
+			Pair expected = new ComputerPlayer(player, Board.getOtherPlayer(player), board, ComputerPlayer.SearchMode.DEPTH_FIRST).getNextMove(board);
+			long minMax = countNodes(board, player, ComputerPlayer.SearchMode.DEPTH_FIRST, AlphaBetaSearch.defaultOrdering(), null, expected);
+			long negamax = countNodes(board, player, ComputerPlayer.SearchMode.NEGAMAX, AlphaBetaSearch.defaultOrdering(), null, expected);
+			long plain = countNodes(board, player, ComputerPlayer.SearchMode.ALPHA_BETA, new PositionalOrdering(), null, expected);
+			long alphaBeta = countNodes(board, player, ComputerPlayer.SearchMode.ALPHA_BETA, AlphaBetaSearch.defaultOrdering(), null, expected);
+			long cached = countNodes(board, player, false, expected);
+			TranspositionTable table = new TranspositionTable(Zobrist.DEFAULT_TABLE_SIZE);
+			long symmetric = countNodes(board, player, ComputerPlayer.SearchMode.ALPHA_BETA, AlphaBetaSearch.defaultOrdering(), table, expected);
+			
+			System.out.printf("%-22s %-5s %8d %8d %8d %8d %8d %8d %8d %6.1f%% %8d  hits=%d misses=%d collisions=%d\n", Arrays.toString(moves).replace(" ", ""), player,
+					tree, minMax, negamax, plain, alphaBeta, cached, symmetric, 100.0 * symmetric / minMax, cached - symmetric,
+					table.getHits(), table.getMisses(), table.getCollisions());
+		}
+	}
+	
+	private static long countNodes(Board board, String player, boolean symmetric, Pair expected) {
+		AlphaBetaSearch search = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(Zobrist.DEFAULT_TABLE_SIZE), symmetric);
+		BitBoard state = new BitBoard(board.getBitBoard());
+		int move = search.search(state, Board.toPlayerIndex(player));
+		if (move != state.cell(expected.getFirst(), expected.getSecond())) {
+			throw new IllegalStateException(String.format("alpha-beta chose cell %d but min-max chose %s", move, expected));
+		}
+		return search.getNodesVisited();
+	}
+	
+	private static long countNodes(Board board, String player, ComputerPlayer.SearchMode mode, MoveOrdering ordering, TranspositionTable table, Pair expected) {
+		ComputerPlayer computer = new ComputerPlayer(player, Board.getOtherPlayer(player), board, mode, ordering, table);
+		Pair move = computer.getNextMove(board);
+		if (expected != null && (move.getFirst() != expected.getFirst() || move.getSecond() != expected.getSecond())) {
+			throw new IllegalStateException(String.format("%s chose %s but min-max chose %s", mode, move, expected));
+		}
+		return computer.getNodesVisited();
+	}
+}
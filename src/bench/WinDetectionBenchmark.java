@@ -0,0 +1,96 @@
+package bench;
+
+import java.util.Random;
+
+import game.BitBoard;
+
+/**
+ * Compares finding the winner of a position by rescanning the whole board (BitBoard.scanWinner)
+ * against reading the line counters BitBoard maintains on place/undo (BitBoard.winner),
+ * over a fixed set of random positions for several board sizes.
+ * Also reports the cost of keeping the counters up to date: one place plus one undo.
+ * Usage: WinDetectionBenchmark [positions]
+ */
+public class WinDetectionBenchmark {
+	
+	private static final int[][] CONFIGURATIONS = {{3, 3, 3}, {4, 4, 4}, {7, 7, 4}, {15, 15, 5}};
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		System.out.printf("%-10s %14s %16s %16s\n", "board", "rescan(ns)", "incremental(ns)", "place+undo(ns)");
+		// results are summed into sink and printed, so the JIT cannot discard the measured calls
+		long sink = 0;
+		
+		for (int[] configuration : CONFIGURATIONS) {
+			Random random = new Random(42);
+			BitBoard[] positions = new BitBoard[count];
+			int[] moves = new int[count];
+			int[] players = new int[count];
+			for (int i = 0; i < count; ++i) {
+				positions[i] = randomPosition(random, configuration);
+				BitBoard position = positions[i];
+				moves[i] = -1;
+				if (!position.terminal()) {
+					do {
+						moves[i] = random.nextInt(position.getCells());
+					} while (!position.isEmpty(moves[i]));
+				}
+				players[i] = position.size() % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+			}
+			
+			double rescan = Double.MAX_VALUE;
+			double incremental = Double.MAX_VALUE;
+			double update = Double.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; ++round) {
+				long start = System.nanoTime();
+				for (BitBoard position : positions) {
+					sink += position.scanWinner();
+				}
+				rescan = Math.min(rescan, (double)(System.nanoTime() - start) / count);
+				
+				start = System.nanoTime();
+				for (BitBoard position : positions) {
+					sink += position.winner();
+				}
+				incremental = Math.min(incremental, (double)(System.nanoTime() - start) / count);
+				
+				start = System.nanoTime();
+				for (int i = 0; i < count; ++i) {
+					if (moves[i] >= 0) {
+						positions[i].place(moves[i], players[i]);
+						sink += positions[i].winner();
+						positions[i].undo(moves[i]);
+					}
+				}
+				update = Math.min(update, (double)(System.nanoTime() - start) / count);
+			}
+			
+			String board = String.format("%dx%d k=%d", configuration[0], configuration[1], configuration[2]);
+			System.out.printf("%-10s %14.1f %16.1f %16.1f\n", board, rescan, incremental, update);
+		}
+		System.out.printf("(checksum %d)\n", sink);
+	}
+	
+	/**
+	 * Plays random moves on an empty board until it is won or a random number of moves have been made.
+	 * 
+	 * @param random source of moves
+	 * @param configuration rows, columns and win length
+	 * @return the position
+	 */
+	private static BitBoard randomPosition(Random random, int[] configuration) {
+		BitBoard position = new BitBoard(configuration[0], configuration[1], configuration[2]);
+		int length = random.nextInt(position.getCells() + 1);
+		int player = BitBoard.PLAYER1;
+		while (position.size() < length && !position.terminal()) {
+			int cell;
+			do {
+				cell = random.nextInt(position.getCells());
+			} while (!position.isEmpty(cell));
+			position.place(cell, player);
+			player = BitBoard.getOtherPlayer(player);
+		}
+		return position;
+	}
+}
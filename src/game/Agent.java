@@ -0,0 +1,22 @@
+package game;
+
+/**
+ * Anything that can choose a move on a Board: the computer, or a scripted opponent used to test it.
+ * An Agent plays one side, fixed when it is constructed.
+ */
+public interface Agent {
+	
+	/**
+	 * Chooses the agent's next move. board is not modified.
+	 * 
+	 * @param board the current game board, before the agent has chosen its move; must not be terminal
+	 * @return the Pair representing its next move; in the format (row, column)
+	 */
+	public Pair getNextMove(Board board);
+	
+	/**
+	 * Stops any threads the agent keeps for its searches. The agent cannot be used afterwards.
+	 */
+	public default void shutdown() {
+	}
+}
@@ -0,0 +1,353 @@
+package game;
+
+import state.SearchEngine;
+
+/**
+ * Depth-first negamax search with alpha-beta pruning.
+ * Moves are made and unmade on a single BitBoard, and tried in the order given by a MoveOrdering.
+ * An optional TranspositionTable collapses positions reached through different move orders into one lookup;
+ * when the search is symmetric, positions are keyed by their canonical Symmetry representative,
+ * so rotations and reflections of a position share one entry as well.
+ * Keys include the board's shape, so one search (and its table) can be reused across board sizes.
+ * Returns the same move as an exhaustive min-max search:
+ * the best scoring move, with ties broken in favor of the lowest cell index.
+ * The search can also be limited to a depth, scoring positions at the horizon with an Evaluator,
+ * and to a deadline; IterativeDeepeningSearch builds on both.
+ */
+public class AlphaBetaSearch implements SearchEngine<BitBoard> {
+	
+	/**
+	 * The ordering used when none is given: killer moves, then history, then center/corners.
+	 * 
+	 * @return a new default MoveOrdering
+	 */
+	public static MoveOrdering defaultOrdering() {
+		return new KillerMoveOrdering(new HistoryOrdering(new PositionalOrdering()));
+	}
+	
+	/**
+	 * Deadline meaning the search may run until it completes.
+	 */
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+	
+	// how many nodes are visited between checks of the clock
+	private static final int DEADLINE_CHECK_MASK = 1023;
+	
+	private final MoveOrdering ordering;
+	private final TranspositionTable table;
+	private final boolean symmetric;
+	private final Evaluator evaluator;
+	private long deadline;
+	private Symmetry symmetry;
+	private long shapeKey;
+	private int[][] moveBuffers;
+	private int[][] scoreBuffers;
+	private long nodesVisited;
+	private int bestScore;
+	
+	/**
+	 * @param ordering the order to try moves in
+	 * @param table cache of earlier results, or null to search without one
+	 * @param symmetric true to key the table by canonical positions
+	 * @param evaluator scores positions at the horizon of a depth-limited search
+	 */
+	public AlphaBetaSearch(MoveOrdering ordering, TranspositionTable table, boolean symmetric, Evaluator evaluator) {
+		this.ordering = ordering;
+		this.table = table;
+		this.symmetric = symmetric;
+		this.evaluator = evaluator;
+		deadline = NO_DEADLINE;
+		moveBuffers = new int[0][];
+		scoreBuffers = new int[0][];
+	}
+	
+	public AlphaBetaSearch(MoveOrdering ordering, TranspositionTable table, boolean symmetric) {
+		this(ordering, table, symmetric, new OpenLinesEvaluator());
+	}
+	
+	public AlphaBetaSearch(MoveOrdering ordering, TranspositionTable table) {
+		this(ordering, table, false);
+	}
+	
+	public AlphaBetaSearch(MoveOrdering ordering) {
+		this(ordering, null);
+	}
+	
+	public AlphaBetaSearch() {
+		this(defaultOrdering());
+	}
+	
+	/**
+	 * Finds the best move for player in state.
+	 * state is restored to its original position before returning.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @return the cell index of the best move
+	 */
+	@Override
+	public int search(BitBoard state, int player) {
+		ordering.reset();
+		return search(state, player, state.getCells() - state.size(), NO_DEADLINE, TranspositionTable.NO_MOVE);
+	}
+	
+	/**
+	 * Finds the best move for player in state, looking at most depth moves ahead.
+	 * Positions at the horizon that have not ended are scored by the evaluator.
+	 * Unlike search(state, player), what the move ordering learned in earlier calls is kept,
+	 * so successive calls with increasing depths build on each other.
+	 * state is left unchanged, even if the search times out.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @param depth the number of moves to look ahead; at least 1
+	 * @param deadline System.nanoTime() value after which to give up, or NO_DEADLINE
+	 * @param firstMove a move to search first, e.g. the best move of a shallower search, or NO_MOVE
+	 * @return the cell index of the best move
+	 * @throws SearchTimeoutException if the deadline passes before the search completes
+	 */
+	public int search(BitBoard state, int player, int depth, long deadline, int firstMove) {
+		if (deadline != NO_DEADLINE) {
+			// a timeout unwinds without undoing moves, so search a copy
+			state = new BitBoard(state);
+		}
+		prepare(state);
+		this.deadline = deadline;
+		if (table != null) {
+			table.newSearch();
+		}
+		
+		int[] moves = moveBuffers[0];
+		int count = generateMoves(state, moves, 0, firstMove);
+		int otherPlayer = BitBoard.getOtherPlayer(player);
+		int bestMove = -1;
+		bestScore = Integer.MIN_VALUE;
+		++nodesVisited;
+		
+		try {
+			for (int i = 0; i < count; ++i) {
+				int move = moves[i];
+				// search one below the best score so that equal scores are exact,
+				// letting ties fall back to the lowest cell like exhaustive min-max
+				int alpha = bestScore == Integer.MIN_VALUE ? -Integer.MAX_VALUE : bestScore - 1;
+				state.place(move, player);
+				int score = -alphaBeta(state, otherPlayer, -Integer.MAX_VALUE, -alpha, 1, depth - 1);
+				state.undo(move);
+				if (score > bestScore || (score == bestScore && move < bestMove)) {
+					bestScore = score;
+					bestMove = move;
+				}
+			}
+		}
+		finally {
+			this.deadline = NO_DEADLINE;
+		}
+		
+		return bestMove;
+	}
+	
+	/**
+	 * Scores state for player within the window (alpha, beta), without choosing a move.
+	 * The result is fail-soft: a score <= alpha is an upper bound, and a score >= beta is a lower bound.
+	 * state is restored to its original position before returning.
+	 * 
+	 * @param state the position to evaluate
+	 * @param player the player whose turn it is in state
+	 * @param alpha lower bound of the search window
+	 * @param beta upper bound of the search window
+	 * @return the score of state from player's perspective
+	 */
+	public int evaluate(BitBoard state, int player, int alpha, int beta) {
+		prepare(state);
+		return alphaBeta(state, player, alpha, beta, 0, state.getCells() - state.size());
+	}
+	
+	/**
+	 * Returns the score of the move chosen by the last search, from the searching player's perspective.
+	 * 
+	 * @return Evaluator.WIN_SCORE for a forced win, 0 for a draw, -Evaluator.WIN_SCORE for a forced loss;
+	 * an evaluator's estimate in between if the result lies beyond the search depth
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+	
+	/**
+	 * Returns the number of positions visited since the last call to resetStatistics.
+	 * 
+	 * @return the node-visit count
+	 */
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited;
+	}
+	
+	@Override
+	public void resetStatistics() {
+		nodesVisited = 0;
+	}
+	
+	/**
+	 * @return the transposition table used by this search, or null
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+	
+	/**
+	 * Clears the transposition table, if any, and what the move ordering has learned.
+	 */
+	@Override
+	public void clear() {
+		if (table != null) {
+			table.clear();
+		}
+		ordering.reset();
+	}
+	
+	/**
+	 * Clears what the move ordering has learned, as search(state, player) does at the start of every search.
+	 */
+	public void resetOrdering() {
+		ordering.reset();
+	}
+	
+	/**
+	 * Sizes the per-ply buffers and symmetry tables for state's board, and computes its shape key.
+	 * 
+	 * @param state the position about to be searched
+	 */
+	private void prepare(BitBoard state) {
+		shapeKey = Zobrist.shapeKey(state.getRows(), state.getCols(), state.getWinLength());
+		int cells = state.getCells();
+		if (moveBuffers.length != cells + 1 || (cells > 0 && moveBuffers[0].length != cells)) {
+			moveBuffers = new int[cells + 1][cells];
+			scoreBuffers = new int[cells + 1][cells];
+		}
+		if (symmetric && (symmetry == null || symmetry.getRows() != state.getRows() || symmetry.getCols() != state.getCols())) {
+			symmetry = new Symmetry(state);
+		}
+	}
+	
+	/**
+	 * Fail-soft negamax alpha-beta search.
+	 * 
+	 * @param state the position to evaluate
+	 * @param player the player whose turn it is in state
+	 * @param alpha lower bound of the search window
+	 * @param beta upper bound of the search window
+	 * @param ply distance from the root
+	 * @param depth remaining number of moves to search; the number of empty cells for an exhaustive search
+	 * @return the score of state from player's perspective
+	 */
+	private int alphaBeta(BitBoard state, int player, int alpha, int beta, int ply, int depth) {
+		if ((++nodesVisited & DEADLINE_CHECK_MASK) == 0 && deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+			throw new SearchTimeoutException();
+		}
+		if (state.terminal()) {
+			return state.utility(player) * Evaluator.WIN_SCORE;
+		}
+		if (depth <= 0) {
+			return evaluator.evaluate(state, player);
+		}
+		
+		int transform = Symmetry.IDENTITY;
+		long key = state.getHash();
+		if (table != null && symmetric) {
+			transform = symmetry.canonicalTransform(state);
+			key = symmetry.getCanonicalHash();
+		}
+		key ^= Zobrist.sideKey(player) ^ shapeKey;
+		// the stored bound is relative to the window this node was asked to search, not the one narrowed by the probe
+		int originalAlpha = alpha;
+		int originalBeta = beta;
+		int hashMove = TranspositionTable.NO_MOVE;
+		if (table != null) {
+			int slot = table.probe(key);
+			if (slot >= 0) {
+				long entry = table.getEntry(slot);
+				hashMove = Scores.move(entry);
+				// a colliding key can still carry a move from a larger board
+				if (hashMove >= state.getCells()) {
+					hashMove = TranspositionTable.NO_MOVE;
+				}
+				if (symmetric && hashMove != TranspositionTable.NO_MOVE) {
+					hashMove = symmetry.inverseTransformCell(hashMove, transform);
+				}
+				if (Scores.depth(entry) >= depth) {
+					int score = Scores.score(entry);
+					switch (table.getFlag(slot)) {
+						case TranspositionTable.EXACT:
+							return score;
+						case TranspositionTable.LOWER_BOUND:
+							alpha = Math.max(alpha, score);
+							break;
+						default:
+							beta = Math.min(beta, score);
+					}
+					if (alpha >= beta) {
+						return score;
+					}
+				}
+			}
+		}
+		
+		int[] moves = moveBuffers[ply];
+		int count = generateMoves(state, moves, ply, hashMove);
+		int otherPlayer = BitBoard.getOtherPlayer(player);
+		int best = -Integer.MAX_VALUE;
+		int bestMove = TranspositionTable.NO_MOVE;
+		
+		for (int i = 0; i < count; ++i) {
+			int move = moves[i];
+			state.place(move, player);
+			int score = -alphaBeta(state, otherPlayer, -beta, -Math.max(alpha, best), ply + 1, depth - 1);
+			state.undo(move);
+			if (score > best) {
+				best = score;
+				bestMove = move;
+				if (best >= beta) {
+					ordering.cutoff(move, ply, depth);
+					break;
+				}
+			}
+		}
+		
+		if (table != null) {
+			byte flag = best <= originalAlpha ? TranspositionTable.UPPER_BOUND : best >= originalBeta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			if (symmetric && bestMove != TranspositionTable.NO_MOVE) {
+				bestMove = symmetry.transformCell(bestMove, transform);
+			}
+			table.store(key, best, flag, depth, bestMove);
+		}
+		return best;
+	}
+	
+	/**
+	 * Fills moves with every empty cell of state, sorted by the move ordering.
+	 * The best move remembered by the transposition table, if any, is placed first.
+	 * 
+	 * @param state the position to generate moves for
+	 * @param moves buffer to fill
+	 * @param ply distance from the root
+	 * @param hashMove the transposition table's best move, or NO_MOVE
+	 * @return the number of moves generated
+	 */
+	private int generateMoves(BitBoard state, int[] moves, int ply, int hashMove) {
+		int[] scores = scoreBuffers[ply];
+		int count = 0;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			int score = cell == hashMove ? Integer.MAX_VALUE : ordering.score(state, cell, ply);
+			// insertion sort; stable, so equal scores keep cell order
+			int i = count++;
+			while (i > 0 && scores[i - 1] < score) {
+				moves[i] = moves[i - 1];
+				scores[i] = scores[i - 1];
+				--i;
+			}
+			moves[i] = cell;
+			scores[i] = score;
+		}
+		return count;
+	}
+}
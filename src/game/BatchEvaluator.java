@@ -0,0 +1,445 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+/**
+ * Finds the best move and game-theoretic value of many positions of one board size at once, for bulk analysis.
+ * Positions are given by their base-3 index (cell i contributes player * 3^i, as in a Tablebase),
+ * and X is assumed to have moved first, so the side to move follows from the marks on the board.
+ * 
+ * Positions are evaluated a chunk at a time. Within a chunk, repeated positions are searched once,
+ * positions already in the result cache are not searched at all, and the rest are searched by the worker threads,
+ * the positions with the fewest empty cells first: positions at one depth take about as long as each other,
+ * and the cheap late positions fill the workers' transposition tables with subtrees the earlier positions reach.
+ * Results are passed back in input order as soon as their chunk is complete,
+ * so a stream of any length is evaluated in bounded memory.
+ * Moves match ComputerPlayer's exhaustive searches: the best scoring move, ties broken in favor of the lowest cell.
+ * 
+ * Instances may be shared by threads, but evaluate one batch at a time.
+ */
+public class BatchEvaluator {
+	public static final int NO_MOVE = -1;
+	
+	/**
+	 * The largest board a long base-3 index can hold.
+	 */
+	public static final int MAX_CELLS = 39;
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+	public static final int DEFAULT_CACHE_SIZE = 1 << 20;
+	
+	/**
+	 * The evaluation of one position.
+	 */
+	public static class Result {
+		private final long position;
+		private final int move;
+		private final int value;
+		
+		public Result(long position, int move, int value) {
+			this.position = position;
+			this.move = move;
+			this.value = value;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("Result(position=%d, move=%d, value=%d)", position, move, value);
+		}
+		
+		/**
+		 * @return the base-3 index of the position
+		 */
+		public long getPosition() {
+			return position;
+		}
+		
+		/**
+		 * @return the cell index of the best move, or NO_MOVE if the game is over
+		 */
+		public int getMove() {
+			return move;
+		}
+		
+		/**
+		 * @return 1 if the side to move wins under perfect play, 0 for a draw, -1 if it loses
+		 */
+		public int getValue() {
+			return value;
+		}
+	}
+	
+	/**
+	 * Computes the base-3 index of state.
+	 * 
+	 * @param state the position to index; at most MAX_CELLS cells
+	 * @return sum of player * 3^cell over every occupied cell
+	 */
+	public static long encode(BitBoard state) {
+		if (state.getCells() > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("%dx%d is too large to index", state.getRows(), state.getCols()));
+		}
+		long position = 0;
+		for (int cell = state.getCells() - 1; cell >= 0; --cell) {
+			position = 3 * position + state.get(cell);
+		}
+		return position;
+	}
+	
+	/**
+	 * Rebuilds the position with the given base-3 index.
+	 * 
+	 * @param position base-3 index of the position
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @return a new BitBoard holding the position
+	 * @throws IllegalArgumentException if position is not an index on the board, or X has not moved first
+	 */
+	public static BitBoard decode(long position, int rows, int cols, int winLength) {
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		if (state.getCells() > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("%dx%d is too large to index", rows, cols));
+		}
+		long rest = position;
+		for (int cell = 0; cell < state.getCells() && rest > 0; ++cell) {
+			int player = (int)(rest % 3);
+			if (player != BitBoard.EMPTY) {
+				state.place(cell, player);
+			}
+			rest /= 3;
+		}
+		if (position < 0 || rest != 0) {
+			throw new IllegalArgumentException(String.format("%d is not a position on a %dx%d board", position, rows, cols));
+		}
+		playerToMove(state);
+		return state;
+	}
+	
+	/**
+	 * @param state a position in which X moved first
+	 * @return the player whose turn it is
+	 * @throws IllegalArgumentException if the marks on the board could not have been played in turn
+	 */
+	public static int playerToMove(BitBoard state) {
+		int difference = countMarks(state, BitBoard.PLAYER1) - countMarks(state, BitBoard.PLAYER2);
+		if (difference != 0 && difference != 1) {
+			throw new IllegalArgumentException(String.format("%s cannot be reached with X moving first", state));
+		}
+		return difference == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+	}
+	
+	private static int countMarks(BitBoard state, int player) {
+		int count = 0;
+		for (int word = 0; word < state.getWordCount(); ++word) {
+			count += Long.bitCount(state.getMask(player, word));
+		}
+		return count;
+	}
+	
+	// results pack the move plus one above the value plus one
+	private static int pack(int move, int value) {
+		return (move + 1) << 2 | (value + 1);
+	}
+	
+	/**
+	 * Results of searched positions, keyed by their base-3 index, which identifies a position exactly.
+	 * Open addressing over parallel primitive arrays, probing a few slots past the first,
+	 * and overwriting the first when all of them are taken. Only used from the evaluating thread.
+	 */
+	private static final class ResultCache {
+		private static final int PROBES = 4;
+		private static final int EMPTY = 0;
+		
+		private final long[] positions;
+		// packed results; a searched position always has a move, so a stored result is never EMPTY
+		private final int[] results;
+		private final int mask;
+		
+		ResultCache(int capacity) {
+			int size = Zobrist.tableSize(capacity);
+			positions = new long[size];
+			results = new int[size];
+			mask = size - 1;
+		}
+		
+		/**
+		 * @return the packed result of position, or EMPTY
+		 */
+		int get(long position) {
+			int first = slot(position);
+			for (int i = 0; i < PROBES; ++i) {
+				int slot = (first + i) & mask;
+				if (results[slot] == EMPTY) {
+					break;
+				}
+				if (positions[slot] == position) {
+					return results[slot];
+				}
+			}
+			return EMPTY;
+		}
+		
+		void put(long position, int result) {
+			int first = slot(position);
+			for (int i = 0; i < PROBES; ++i) {
+				int slot = (first + i) & mask;
+				if (results[slot] == EMPTY || positions[slot] == position) {
+					positions[slot] = position;
+					results[slot] = result;
+					return;
+				}
+			}
+			positions[first] = position;
+			results[first] = result;
+		}
+		
+		private int slot(long position) {
+			// base-3 indices of nearby positions differ in few bits, so spread them before taking the low bits
+			long z = position * 0x9E3779B97F4A7C15L;
+			return (int)(z ^ (z >>> 32)) & mask;
+		}
+	}
+	
+	
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int parallelism;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<AlphaBetaSearch> searches;
+	private final ResultCache cache;
+	private long evaluated;
+	private long duplicates;
+	private long cacheHits;
+	private long searched;
+	
+	/**
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @param parallelism the number of worker threads
+	 * @param chunkSize the number of positions evaluated before their results are passed back
+	 * @param cacheSize the number of results remembered across chunks and batches
+	 */
+	public BatchEvaluator(int rows, int cols, int winLength, int parallelism, int chunkSize, int cacheSize) {
+		if (rows <= 0 || cols <= 0 || rows * cols > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("unsupported board size %dx%d", rows, cols));
+		}
+		if (parallelism <= 0 || chunkSize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid parallelism %d or chunk size %d", parallelism, chunkSize));
+		}
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		this.parallelism = parallelism;
+		this.chunkSize = chunkSize;
+		pool = new ForkJoinPool(parallelism);
+		searches = ThreadLocal.withInitial(() -> new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(Zobrist.DEFAULT_TABLE_SIZE), true));
+		cache = new ResultCache(cacheSize);
+	}
+	
+	public BatchEvaluator(int rows, int cols, int winLength, int parallelism) {
+		this(rows, cols, winLength, parallelism, DEFAULT_CHUNK_SIZE, DEFAULT_CACHE_SIZE);
+	}
+	
+	public BatchEvaluator(int rows, int cols, int winLength) {
+		this(rows, cols, winLength, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Evaluates every position, returning the results in input order.
+	 * 
+	 * @param positions base-3 indices of the positions
+	 * @return the result for each position
+	 * @throws IllegalArgumentException if a position is not a reachable index on this evaluator's board
+	 */
+	public Result[] evaluate(long[] positions) {
+		Result[] results = new Result[positions.length];
+		int[] next = new int[1];
+		evaluate(Arrays.stream(positions), result -> results[next[0]++] = result);
+		return results;
+	}
+	
+	/**
+	 * Evaluates every position, passing each result to consumer in input order, a chunk at a time.
+	 * consumer is called on the calling thread.
+	 * 
+	 * @param positions base-3 indices of the positions
+	 * @param consumer receives the results
+	 * @throws IllegalArgumentException if a position is not a reachable index on this evaluator's board
+	 */
+	public synchronized void evaluate(LongStream positions, Consumer<Result> consumer) {
+		PrimitiveIterator.OfLong iterator = positions.iterator();
+		long[] chunk = new long[chunkSize];
+		while (iterator.hasNext()) {
+			int count = 0;
+			while (count < chunk.length && iterator.hasNext()) {
+				chunk[count++] = iterator.nextLong();
+			}
+			evaluateChunk(chunk, count, consumer);
+		}
+	}
+	
+	/**
+	 * Evaluates the first count positions of chunk and passes their results to consumer.
+	 */
+	private void evaluateChunk(long[] chunk, int count, Consumer<Result> consumer) {
+		// repeated positions collapse into one entry of the sorted unique positions
+		long[] unique = Arrays.copyOf(chunk, count);
+		Arrays.sort(unique);
+		int uniqueCount = 0;
+		for (int i = 0; i < count; ++i) {
+			if (uniqueCount == 0 || unique[uniqueCount - 1] != unique[i]) {
+				unique[uniqueCount++] = unique[i];
+			}
+		}
+		evaluated += count;
+		duplicates += count - uniqueCount;
+		
+		// look every unique position up in the cache, and queue the misses by number of empty cells
+		int[] entries = new int[uniqueCount];
+		BitBoard[] states = new BitBoard[uniqueCount];
+		int[] players = new int[uniqueCount];
+		int[] depths = new int[uniqueCount];
+		int[] depthStarts = new int[rows * cols + 2];
+		for (int i = 0; i < uniqueCount; ++i) {
+			int entry = cache.get(unique[i]);
+			if (entry != ResultCache.EMPTY) {
+				entries[i] = entry;
+				++cacheHits;
+				continue;
+			}
+			BitBoard state = decode(unique[i], rows, cols, winLength);
+			int player = playerToMove(state);
+			if (state.terminal()) {
+				entries[i] = pack(NO_MOVE, state.utility(player));
+			}
+			else {
+				states[i] = state;
+				players[i] = player;
+				depths[i] = state.getCells() - state.size();
+				++depthStarts[depths[i] + 1];
+			}
+		}
+		
+		// counting sort of the misses by depth, keeping position order within each depth
+		for (int depth = 1; depth < depthStarts.length; ++depth) {
+			depthStarts[depth] += depthStarts[depth - 1];
+		}
+		int queued = depthStarts[depthStarts.length - 1];
+		int[] queue = new int[queued];
+		for (int i = 0; i < uniqueCount; ++i) {
+			if (states[i] != null) {
+				queue[depthStarts[depths[i]]++] = i;
+			}
+		}
+		searched += queued;
+		search(queue, queued, states, players, entries);
+		for (int q = 0; q < queued; ++q) {
+			cache.put(unique[queue[q]], entries[queue[q]]);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			int entry = entries[Arrays.binarySearch(unique, 0, uniqueCount, chunk[i])];
+			consumer.accept(new Result(chunk[i], (entry >>> 2) - 1, (entry & 3) - 1));
+		}
+	}
+	
+	/**
+	 * Searches the queued positions on the worker threads, each worker taking the next position in the queue when it finishes one.
+	 */
+	private void search(int[] queue, int queued, BitBoard[] states, int[] players, int[] entries) {
+		if (queued == 0) {
+			return;
+		}
+		AtomicInteger next = new AtomicInteger();
+		List<Callable<Void>> workers = new ArrayList<>();
+		for (int w = 0; w < Math.min(parallelism, queued); ++w) {
+			workers.add(() -> {
+				AlphaBetaSearch search = searches.get();
+				for (int q = next.getAndIncrement(); q < queued; q = next.getAndIncrement()) {
+					int i = queue[q];
+					int move = search.search(states[i], players[i]);
+					int value = Integer.signum(search.getBestScore());
+					entries[i] = pack(move, value);
+				}
+				return null;
+			});
+		}
+		
+		try {
+			for (Future<Void> worker : pool.invokeAll(workers)) {
+				worker.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("batch evaluation was interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("batch evaluation failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * Stops the worker threads. The evaluator cannot be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * @return the number of positions passed in since construction
+	 */
+	public long getEvaluated() {
+		return evaluated;
+	}
+	
+	/**
+	 * @return the number of positions that repeated another in the same chunk
+	 */
+	public long getDuplicates() {
+		return duplicates;
+	}
+	
+	/**
+	 * @return the number of unique positions answered from the cache
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+	
+	/**
+	 * @return the number of positions searched
+	 */
+	public long getSearched() {
+		return searched;
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getWinLength() {
+		return winLength;
+	}
+}
@@ -0,0 +1,651 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import metrics.Metrics;
+import state.GameState;
+import state.MutableGameState;
+import state.Player;
+
+/**
+ * Compact GameState that packs each player's marks into primitive bit masks.
+ * Cell (row, col) is stored at bit (row * cols + col), spread over as many 64-bit words as the board needs.
+ * A player wins by getting winLength marks in a row horizontally, vertically or diagonally.
+ * Every run of winLength cells is a line, and each player's mark count on every line is maintained on place/undo,
+ * so place/undo only touch the lines through one cell (at most 4 * winLength),
+ * and terminal status, the winner and utility are O(1) reads.
+ * Boards of up to 64 cells skip the counters and test the lines through the cell against precomputed masks instead,
+ * which is cheaper there; their mark counts are read from the masks.
+ * A Zobrist hash of the position is maintained incrementally.
+ */
+public class BitBoard implements MutableGameState {
+	public static final int EMPTY = 0;
+	public static final int PLAYER1 = 1;
+	public static final int PLAYER2 = 2;
+	public static final int MAX_CELLS = Zobrist.MAX_CELLS;
+
+	// the four line directions: horizontal, vertical, diagonal, anti-diagonal
+	private static final int[] ROW_STEPS = {0, 1, 1, 1};
+	private static final int[] COL_STEPS = {1, 0, 1, -1};
+	private static final Map<Long, LineTable> LINE_TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * The lines of one board shape; shared by every board of that shape.
+	 */
+	private static final class LineTable {
+		private final int[][] cellLines;
+		private final int lineCount;
+		private final long[] lineMasks;
+		private final long[][] cellLineMasks;
+
+		/**
+		 * @param lineMasks the cells of each line, or null for boards of more than 64 cells
+		 * @param cellLineMasks the masks of the lines through each cell, or null for boards of more than 64 cells
+		 */
+		private LineTable(int[][] cellLines, int lineCount, long[] lineMasks, long[][] cellLineMasks) {
+			this.cellLines = cellLines;
+			this.lineCount = lineCount;
+			this.lineMasks = lineMasks;
+			this.cellLineMasks = cellLineMasks;
+		}
+	}
+
+	/**
+	 * Returns the opposite player index of player.
+	 * e.g., if player is PLAYER1, returns PLAYER2, and vice-versa.
+	 *
+	 * @param player PLAYER1 or PLAYER2
+	 * @return the other player
+	 */
+	public static int getOtherPlayer(int player) {
+		return player ^ (PLAYER1 | PLAYER2);
+	}
+
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int[][] cellLines;
+	private final int lineCount;
+	private final long[] lineMasks;
+	private final long[][] cellLineMasks;
+	private final long[] player1;
+	private final long[] player2;
+	private final int[] lineMarks;
+	private int completed1;
+	private int completed2;
+	private int length;
+	private int winner;
+	private long hash;
+
+	/**
+	 * Constructs an empty rows x cols board, won by winLength marks in a row.
+	 *
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 */
+	public BitBoard(int rows, int cols, int winLength) {
+		if (rows <= 0 || cols <= 0 || rows * cols > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("unsupported board size %dx%d", rows, cols));
+		}
+		if (winLength <= 0 || winLength > Math.max(rows, cols)) {
+			throw new IllegalArgumentException(String.format("win length %d does not fit a %dx%d board", winLength, rows, cols));
+		}
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		int words = (rows * cols + Long.SIZE - 1) / Long.SIZE;
+		player1 = new long[words];
+		player2 = new long[words];
+		LineTable table = LINE_TABLES.computeIfAbsent(((long)rows << 32) | ((long)cols << 16) | winLength, key -> generateLineTable());
+		cellLines = table.cellLines;
+		lineCount = table.lineCount;
+		lineMasks = table.lineMasks;
+		cellLineMasks = table.cellLineMasks;
+		lineMarks = cellLineMasks == null ? new int[2 * lineCount] : null;
+		completed1 = 0;
+		completed2 = 0;
+		length = 0;
+		winner = EMPTY;
+		hash = 0L;
+	}
+
+	/**
+	 * Constructs an empty rows x cols board, won by filling a row, column or diagonal of the shorter side.
+	 *
+	 * @param rows
+	 * @param cols
+	 */
+	public BitBoard(int rows, int cols) {
+		this(rows, cols, Math.min(rows, cols));
+	}
+
+	public BitBoard() {
+		this(3, 3);
+	}
+
+	/**
+	 * Copy constructor - copies the masks of other.
+	 *
+	 * @param other the board to copy
+	 */
+	public BitBoard(BitBoard other) {
+		rows = other.rows;
+		cols = other.cols;
+		winLength = other.winLength;
+		cellLines = other.cellLines;
+		lineCount = other.lineCount;
+		lineMasks = other.lineMasks;
+		cellLineMasks = other.cellLineMasks;
+		player1 = other.player1.clone();
+		player2 = other.player2.clone();
+		lineMarks = other.lineMarks == null ? null : other.lineMarks.clone();
+		completed1 = other.completed1;
+		completed2 = other.completed2;
+		length = other.length;
+		winner = other.winner;
+		hash = other.hash;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (other instanceof BitBoard) {
+			BitBoard otherBoard = (BitBoard)other;
+			return rows == otherBoard.rows && cols == otherBoard.cols && winLength == otherBoard.winLength
+					&& Arrays.equals(player1, otherBoard.player1) && Arrays.equals(player2, otherBoard.player2);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash) * 31 + rows * cols;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(String.format("BitBoard(%dx%d, k=%d, ", rows, cols, winLength));
+		for (int cell = 0; cell < getCells(); ++cell) {
+			if (cell > 0 && cell % cols == 0) {
+				builder.append('/');
+			}
+			builder.append(".XO".charAt(get(cell)));
+		}
+		return builder.append(')').toString();
+	}
+
+	/**
+	 * @see GameState#terminal()
+	 */
+	@Override
+	public boolean terminal() {
+		if (Metrics.ENABLED) {
+			Metrics.TERMINAL_CHECKS.increment();
+		}
+		return winner != EMPTY || length == getCells();
+	}
+
+	/**
+	 * @see GameState#utility(Player)
+	 */
+	@Override
+	public int utility(Player player) {
+		return utility(Board.toPlayerIndex(player.getId()));
+	}
+
+	/**
+	 * Returns the score of the board relative to player:
+	 * 1 if player has won, -1 if the other player has won, 0 otherwise.
+	 *
+	 * @param player PLAYER1 or PLAYER2
+	 * @return the integer representation of the score
+	 */
+	@Override
+	public int utility(int player) {
+		if (Metrics.ENABLED) {
+			Metrics.UTILITY_CHECKS.increment();
+		}
+		if (winner == EMPTY) {
+			return 0;
+		}
+		return winner == player ? 1 : -1;
+	}
+
+	/**
+	 * Returns the player who has completed a winning line.
+	 *
+	 * @return PLAYER1, PLAYER2, or EMPTY if nobody has won
+	 */
+	public int winner() {
+		return winner;
+	}
+
+	/**
+	 * Determines the winner by rescanning every cell of the board, ignoring the incrementally tracked state.
+	 *
+	 * @return PLAYER1, PLAYER2, or EMPTY if nobody has won
+	 */
+	public int scanWinner() {
+		for (int cell = 0; cell < getCells(); ++cell) {
+			int player = get(cell);
+			if (player != EMPTY && scanLines(cell, player)) {
+				return player;
+			}
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Counts the winning lines (runs of winLength cells) that pass through cell.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @return the number of lines containing cell
+	 */
+	public int countLinesThrough(int cell) {
+		return cellLines[cell].length;
+	}
+
+	/**
+	 * Returns the ids of the lines that pass through cell.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @return line ids, each below getLineCount()
+	 */
+	public int[] getLinesThrough(int cell) {
+		return cellLines[cell];
+	}
+
+	/**
+	 * Returns the number of marks player has on line.
+	 *
+	 * @param line the line id
+	 * @param player PLAYER1 or PLAYER2
+	 * @return the mark count, between 0 and winLength
+	 */
+	public int getMarks(int line, int player) {
+		if (lineMarks == null) {
+			return Long.bitCount(bits(player)[0] & lineMasks[line]);
+		}
+		return lineMarks[(player - 1) * lineCount + line];
+	}
+
+	/**
+	 * @return the number of distinct lines (runs of winLength cells) on the board
+	 */
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * Marks cell with player's bit, and counts the mark on every line through cell (or, on a masked board, checks those lines).
+	 * Does not validate the move.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @param player PLAYER1 or PLAYER2
+	 */
+	@Override
+	public void place(int cell, int player) {
+		bits(player)[cell >>> 6] |= 1L << cell;
+		++length;
+		hash ^= Zobrist.cellKey(cell, player);
+		
+		if (lineMarks == null) {
+			if (winner == EMPTY && completesLine(cell, player)) {
+				winner = player;
+			}
+			return;
+		}
+		int offset = (player - 1) * lineCount;
+		int completed = 0;
+		for (int line : cellLines[cell]) {
+			if (++lineMarks[offset + line] == winLength) {
+				++completed;
+			}
+		}
+		if (completed > 0) {
+			if (player == PLAYER1) {
+				completed1 += completed;
+			}
+			else {
+				completed2 += completed;
+			}
+			if (winner == EMPTY) {
+				winner = player;
+			}
+		}
+	}
+
+	/**
+	 * Clears cell; the inverse of place.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 */
+	@Override
+	public void undo(int cell) {
+		int player = get(cell);
+		if (player == EMPTY) {
+			return;
+		}
+		// on a masked board, only taking a mark off one of the winner's lines can change the winner
+		boolean breaksWin = lineMarks == null && winner == player && completesLine(cell, player);
+		bits(player)[cell >>> 6] &= ~(1L << cell);
+		--length;
+		hash ^= Zobrist.cellKey(cell, player);
+		
+		if (lineMarks == null) {
+			if (breaksWin && !holdsLine(player)) {
+				int otherPlayer = getOtherPlayer(player);
+				winner = holdsLine(otherPlayer) ? otherPlayer : EMPTY;
+			}
+			return;
+		}
+		int offset = (player - 1) * lineCount;
+		int broken = 0;
+		for (int line : cellLines[cell]) {
+			if (lineMarks[offset + line]-- == winLength) {
+				++broken;
+			}
+		}
+		if (broken > 0) {
+			if (player == PLAYER1) {
+				completed1 -= broken;
+			}
+			else {
+				completed2 -= broken;
+			}
+			if (winner == player && (player == PLAYER1 ? completed1 : completed2) == 0) {
+				int otherPlayer = getOtherPlayer(player);
+				winner = (otherPlayer == PLAYER1 ? completed1 : completed2) > 0 ? otherPlayer : EMPTY;
+			}
+		}
+	}
+
+	/**
+	 * Returns the player occupying cell.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @return PLAYER1, PLAYER2, or EMPTY
+	 */
+	public int get(int cell) {
+		int word = cell >>> 6;
+		long bit = 1L << cell;
+		if ((player1[word] & bit) != 0) {
+			return PLAYER1;
+		}
+		if ((player2[word] & bit) != 0) {
+			return PLAYER2;
+		}
+		return EMPTY;
+	}
+
+	public int get(int row, int col) {
+		return get(cell(row, col));
+	}
+
+	public boolean isEmpty(int cell) {
+		int word = cell >>> 6;
+		return ((player1[word] | player2[word]) & (1L << cell)) == 0;
+	}
+
+	/**
+	 * Finds the first empty cell at or after from, scanning a 64-cell word of the masks at a time.
+	 * Iterates every empty cell in ascending order without allocating:
+	 * for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1))
+	 *
+	 * @param from index of the cell to start at
+	 * @return the index of the empty cell, or -1 if there is none
+	 */
+	public int nextEmpty(int from) {
+		int word = from >>> 6;
+		if (word >= player1.length) {
+			return -1;
+		}
+		long empty = ~(player1[word] | player2[word]) & (-1L << from);
+		while (empty == 0) {
+			if (++word == player1.length) {
+				return -1;
+			}
+			empty = ~(player1[word] | player2[word]);
+		}
+		int cell = (word << 6) + Long.numberOfTrailingZeros(empty);
+		return cell < getCells() ? cell : -1;
+	}
+
+	/**
+	 * Moves are cell indices, so the legal moves are the empty cells.
+	 *
+	 * @see MutableGameState#nextMove(int)
+	 */
+	@Override
+	public int nextMove(int from) {
+		return nextEmpty(from);
+	}
+
+	/**
+	 * @see MutableGameState#getOpponent(int)
+	 */
+	@Override
+	public int getOpponent(int player) {
+		return getOtherPlayer(player);
+	}
+
+	/**
+	 * Writes the index of every empty cell, in ascending order, into moves.
+	 *
+	 * @param moves buffer to fill; must have room for every empty cell
+	 * @return the number of empty cells written
+	 */
+	public int getEmptyCells(int[] moves) {
+		int count = 0;
+		for (int cell = nextEmpty(0); cell >= 0; cell = nextEmpty(cell + 1)) {
+			moves[count++] = cell;
+		}
+		return count;
+	}
+
+	/**
+	 * Converts (row, col) into the cell index used by this board.
+	 *
+	 * @param row
+	 * @param col
+	 * @return row * cols + col
+	 */
+	public int cell(int row, int col) {
+		return row * cols + col;
+	}
+
+	/**
+	 * Represents the number of moves that have currently been made on the board.
+	 *
+	 * @return the number of moves made
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the position.
+	 * Does not include whose turn it is; see Zobrist#sideKey(int).
+	 *
+	 * @return the 64-bit position hash
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Returns one 64-bit word of the mask of every cell held by player.
+	 * Bit i of word w is cell (64 * w + i).
+	 *
+	 * @param player PLAYER1 or PLAYER2
+	 * @param word index of the word, below getWordCount()
+	 * @return the player's mask for that word
+	 */
+	public long getMask(int player, int word) {
+		return bits(player)[word];
+	}
+
+	/**
+	 * @return the number of 64-bit words each player's mask spans
+	 */
+	public int getWordCount() {
+		return player1.length;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getCols() {
+		return cols;
+	}
+
+	public int getCells() {
+		return rows * cols;
+	}
+
+	public int getWinLength() {
+		return winLength;
+	}
+
+	private long[] bits(int player) {
+		return player == PLAYER1 ? player1 : player2;
+	}
+
+	/**
+	 * Determines if player holds a whole line through cell, on a board of at most 64 cells.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @param player PLAYER1 or PLAYER2
+	 * @return true if a line through cell is complete
+	 */
+	private boolean completesLine(int cell, int player) {
+		long marks = bits(player)[0];
+		for (long line : cellLineMasks[cell]) {
+			if ((marks & line) == line) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines if player holds a whole line anywhere, on a board of at most 64 cells.
+	 *
+	 * @param player PLAYER1 or PLAYER2
+	 * @return true if any line is complete
+	 */
+	private boolean holdsLine(int player) {
+		long marks = bits(player)[0];
+		for (long line : lineMasks) {
+			if ((marks & line) == line) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines if player has winLength marks in a row through cell, in any direction,
+	 * by walking the board rather than reading the line counters.
+	 *
+	 * @param cell index of the cell (row * cols + col)
+	 * @param player PLAYER1 or PLAYER2
+	 * @return true if a line through cell is complete
+	 */
+	private boolean scanLines(int cell, int player) {
+		int row = cell / cols;
+		int col = cell % cols;
+		for (int d = 0; d < ROW_STEPS.length; ++d) {
+			int count = 1 + run(row, col, ROW_STEPS[d], COL_STEPS[d], player) + run(row, col, -ROW_STEPS[d], -COL_STEPS[d], player);
+			if (count >= winLength) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Numbers every run of winLength cells on the board, and lists the runs through each cell;
+	 * boards of up to 64 cells also get the mask of every line.
+	 *
+	 * @return the line table for this board's shape
+	 */
+	private LineTable generateLineTable() {
+		int[][] lines = new int[getCells()][];
+		int[] counts = new int[getCells()];
+		long[] masks = null;
+		int id = 0;
+		for (int pass = 0; pass < 2; ++pass) {
+			// the first pass counts the lines through each cell; the second fills them in
+			id = 0;
+			for (int d = 0; d < ROW_STEPS.length; ++d) {
+				for (int r = 0; r < rows; ++r) {
+					for (int c = 0; c < cols; ++c) {
+						int lastRow = r + (winLength - 1) * ROW_STEPS[d];
+						int lastCol = c + (winLength - 1) * COL_STEPS[d];
+						// a single cell is the same line in every direction
+						if (lastRow < 0 || lastRow >= rows || lastCol < 0 || lastCol >= cols || (winLength == 1 && d > 0)) {
+							continue;
+						}
+						for (int i = 0; i < winLength; ++i) {
+							int member = cell(r + i * ROW_STEPS[d], c + i * COL_STEPS[d]);
+							if (pass == 0) {
+								++counts[member];
+							}
+							else {
+								lines[member][counts[member]++] = id;
+								if (masks != null) {
+									masks[id] |= 1L << member;
+								}
+							}
+						}
+						++id;
+					}
+				}
+			}
+			if (pass == 0) {
+				for (int cell = 0; cell < getCells(); ++cell) {
+					lines[cell] = new int[counts[cell]];
+					counts[cell] = 0;
+				}
+				if (getCells() <= Long.SIZE) {
+					masks = new long[id];
+				}
+			}
+		}
+		if (masks == null) {
+			return new LineTable(lines, id, null, null);
+		}
+		long[][] cellMasks = new long[getCells()][];
+		for (int cell = 0; cell < getCells(); ++cell) {
+			cellMasks[cell] = new long[lines[cell].length];
+			for (int i = 0; i < lines[cell].length; ++i) {
+				cellMasks[cell][i] = masks[lines[cell][i]];
+			}
+		}
+		return new LineTable(lines, id, masks, cellMasks);
+	}
+
+	/**
+	 * Counts player's consecutive marks starting next to (row, col) in direction (rowStep, colStep),
+	 * up to winLength - 1.
+	 */
+	private int run(int row, int col, int rowStep, int colStep, int player) {
+		int count = 0;
+		int r = row + rowStep;
+		int c = col + colStep;
+		while (count < winLength - 1 && r >= 0 && r < rows && c >= 0 && c < cols && get(r * cols + c) == player) {
+			++count;
+			r += rowStep;
+			c += colStep;
+		}
+		return count;
+	}
+}
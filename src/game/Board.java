@@ -5,6 +5,10 @@ import java.util.List;
 import state.GameState;
 import state.Player;
 
+/**
+ * The game board used by Game, addressed by (row, column) and player icons.
+ * Acts as a view over a compact BitBoard, which holds the actual position.
+ */
 public class Board implements GameState {
 	public static final String EMPTY = " ";
 	public static final String PLAYER1 = "X";
@@ -14,27 +18,59 @@ public class Board implements GameState {
 		return currentPlayer.equals(PLAYER1) ? PLAYER2 : PLAYER1;
 	}
 	
-	private List<List<String>> board;
+	/**
+	 * Converts a player's icon into the player index used by BitBoard.
+	 * 
+	 * @param player PLAYER1 or PLAYER2
+	 * @return BitBoard.PLAYER1 or BitBoard.PLAYER2
+	 */
+	public static int toPlayerIndex(String player) {
+		if (player.equals(PLAYER1)) {
+			return BitBoard.PLAYER1;
+		}
+		else if (player.equals(PLAYER2)) {
+			return BitBoard.PLAYER2;
+		}
+		throw new IllegalArgumentException(String.format("unknown player \"%s\"", player));
+	}
+	
+	/**
+	 * Converts a BitBoard player index back into its icon.
+	 * 
+	 * @param player BitBoard.PLAYER1, BitBoard.PLAYER2 or BitBoard.EMPTY
+	 * @return PLAYER1, PLAYER2 or EMPTY
+	 */
+	public static String toIcon(int player) {
+		switch (player) {
+			case BitBoard.PLAYER1:
+				return PLAYER1;
+			case BitBoard.PLAYER2:
+				return PLAYER2;
+			default:
+				return EMPTY;
+		}
+	}
+	
+	private final BitBoard state;
 	private final int rows;
 	private final int cols;
-	private int length;
 	
-	private Board(int rows, int cols) {
+	/**
+	 * Constructs an empty rows x cols board, won by getting winLength marks in a row
+	 * horizontally, vertically or diagonally.
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 */
+	public Board(int rows, int cols, int winLength) {
 		this.rows = rows;
 		this.cols = cols;
-		length = 0;
-		board = new ArrayList<>();
-		
-		for (int r = 0; r < rows; ++r) {
-			board.add(new ArrayList<>());
-			for (int c = 0; c < cols; ++c) {
-				board.get(r).add(EMPTY);
-			}
-		}
+		state = new BitBoard(rows, cols, winLength);
 	}
 	
 	public Board() {
-		this(3, 3);
+		this(3, 3, 3);
 	}
 	
 	/**
@@ -43,30 +79,40 @@ public class Board implements GameState {
 	 * @param other the board to copy
 	 */
 	public Board(Board other) {
-		rows = other.getRows();
-		cols = other.getCols();
-		length = other.size();
-		board = new ArrayList<>();
-		for (List<String> row : other.getBoard()) {
-			board.add(new ArrayList<>(row));
-		}
+		this(other.getBitBoard());
+	}
+	
+	/**
+	 * Constructs a board holding a copy of the given position.
+	 * 
+	 * @param position the position to copy
+	 */
+	public Board(BitBoard position) {
+		rows = position.getRows();
+		cols = position.getCols();
+		state = new BitBoard(position);
 	}
 	
 	@Override
 	public boolean equals(Object other) {
 		if (other instanceof Board) {
 			Board otherBoard = (Board)other;
-			return getRows() == otherBoard.getRows() && getCols() == otherBoard.getCols() && board.equals(otherBoard.getBoard());
+			return state.equals(otherBoard.getBitBoard());
 		}
 		return false;
 	}
 	
+	@Override
+	public int hashCode() {
+		return state.hashCode();
+	}
+	
 	/**
 	 * @see java.lang.Object#toString()
 	 */
 	@Override
 	public String toString() {
-		return board.toString();
+		return getBoard().toString();
 	}
 	
 	/**
@@ -74,23 +120,7 @@ public class Board implements GameState {
 	 */
 	@Override
 	public boolean terminal() {
-		for (int r = 0; r < getRows(); ++r) {
-			if (rowHasStreak(r, PLAYER1) || rowHasStreak(r, PLAYER2)) {
-				return true;
-			}
-		}
-		for (int c = 0; c < getCols(); ++c) {
-			if (colHasStreak(c, PLAYER1) || colHasStreak(c, PLAYER2)) {
-				return true;
-			}
-		}
-		if (diagonalHasStreak(PLAYER1) || diagonalHasStreak(PLAYER2)) {
-			return true;
-		}
-		if (size() == getRows() * getCols()) {
-			return true;
-		}
-		return false;
+		return state.terminal();
 	}
 
 	/**
@@ -98,50 +128,24 @@ public class Board implements GameState {
 	 */
 	@Override
 	public int utility(Player player) {
-		String me = player.getId();
-		String enemy = getOtherPlayer(me);
-		
-		for (int r = 0; r < getRows(); ++r) {
-			if (rowHasStreak(r, me)) {
-				return 1;
-			}
-			else if (rowHasStreak(r, enemy)) {
-				return -1;
-			}
-		}
-		for (int c = 0; c < getCols(); ++c) {
-			if (colHasStreak(c, me)) {
-				return 1;
-			}
-			else if (colHasStreak(c, enemy)) {
-				return -1;
-			}
-		}
-		if (diagonalHasStreak(me)) {
-			return 1;
-		}
-		else if (diagonalHasStreak(enemy)) {
-			return -1;
-		}
-		
-		// tie
-		return 0;
+		return state.utility(player);
 	}
 	
 	/**
 	 * Prints a human-readable representation of the board to standard-out.
 	 */
 	public void printBoard() {
-		System.out.print("  ");
+		String cell = "%" + Integer.toString(Math.max(rows, cols)).length() + "s ";
+		System.out.printf(cell, "");
 		for (int c = 0; c < cols; ++c) {
-			System.out.printf("%d ", c + 1);
+			System.out.printf(cell, c + 1);
 		}
 		System.out.println();
 		
 		for (int r = 0; r < rows; ++r) {
-			System.out.printf("%d ", r + 1);
+			System.out.printf(cell, r + 1);
 			for (int c = 0; c < cols; ++c) {
-				System.out.printf("%s ", board.get(r).get(c));
+				System.out.printf(cell, toIcon(state.get(r, c)));
 			}
 			System.out.println();
 		}
@@ -153,7 +157,7 @@ public class Board implements GameState {
 	 * @return the number of moves made
 	 */
 	public int size() {
-		return length;
+		return state.size();
 	}
 	
 	/**
@@ -168,8 +172,7 @@ public class Board implements GameState {
 	public boolean place(int row, int col, String player) {
 		boolean result = isValidMove(row, col);
 		if (result) {
-			board.get(row).set(col, player);
-			++length;
+			state.place(state.cell(row, col), toPlayerIndex(player));
 		}
 		return result;
 	}
@@ -183,12 +186,36 @@ public class Board implements GameState {
 	 * @return true if the move is valid
 	 */
 	public boolean isValidMove(int row, int col) {
-		return row >= 0 && row < rows && col >= 0 && col < cols && board.get(row).get(col).equals(EMPTY);
+		return row >= 0 && row < rows && col >= 0 && col < cols && state.isEmpty(state.cell(row, col));
 	}
 
+	/**
+	 * Builds a snapshot of the board as rows of player icons.
+	 * Changes to the returned list are not reflected in the board.
+	 * 
+	 * @return List of rows, each a List of icons
+	 */
 	public List<List<String>> getBoard() {
+		List<List<String>> board = new ArrayList<>(rows);
+		for (int r = 0; r < rows; ++r) {
+			List<String> row = new ArrayList<>(cols);
+			for (int c = 0; c < cols; ++c) {
+				row.add(toIcon(state.get(r, c)));
+			}
+			board.add(row);
+		}
 		return board;
 	}
+	
+	/**
+	 * Returns the compact position backing this board.
+	 * Changes to the returned BitBoard are reflected in the board.
+	 * 
+	 * @return the underlying BitBoard
+	 */
+	public BitBoard getBitBoard() {
+		return state;
+	}
 
 	public int getRows() {
 		return rows;
@@ -198,68 +225,7 @@ public class Board implements GameState {
 		return cols;
 	}
 	
-	/**
-	 * Determines if the given row has a winning streak by the given player.
-	 * 
-	 * @param row
-	 * @param player
-	 * @return true if player has a streak in row
-	 */
-	private boolean rowHasStreak(int row, String player) {
-		boolean hasStreak = !player.equals(EMPTY);
-		int col = 0;
-		
-		while (col < getCols() && hasStreak) {
-			String value = board.get(row).get(col++);
-			hasStreak = hasStreak && value.equals(player);
-		}
-		
-		return hasStreak;
-	}
-	
-	/**
-	 * Determines if the given column has a winning streak by the given player.
-	 * 
-	 * @param col
-	 * @param player
-	 * @return true if player has a streak in col
-	 */
-	private boolean colHasStreak(int col, String player) {
-		boolean hasStreak = !player.equals(EMPTY);
-		int row = 0;
-		
-		while (row < getRows() && hasStreak) {
-			String value = board.get(row++).get(col);
-			hasStreak = hasStreak && value.equals(player);
-		}
-		
-		return hasStreak;
-	}
-	
-	/**
-	 * Determines if either diagonal has a winning streak by the given player.
-	 * 
-	 * @param player
-	 * @return true if player has a diagonal streak
-	 */
-	private boolean diagonalHasStreak(String player) {
-		int row = 0;
-		int col = 0;
-		boolean leftHasStreak = !player.equals(EMPTY);
-		
-		while (row < getRows() && col < getCols() && leftHasStreak) {
-			String value = board.get(row++).get(col++);
-			leftHasStreak = leftHasStreak && value.equals(player);
-		}
-		
-		row = 0;
-		col = getCols() - 1;
-		boolean rightHasStreak = !player.equals(EMPTY);
-		while (row < getRows() && col >= 0 && rightHasStreak) {
-			String value = board.get(row++).get(col--);
-			rightHasStreak = rightHasStreak && value.equals(player);
-		}
-		
-		return leftHasStreak || rightHasStreak;
+	public int getWinLength() {
+		return state.getWinLength();
 	}
 }
@@ -0,0 +1,301 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import metrics.Metrics;
+import state.GameState;
+import state.GameTreeNode;
+import state.MinMaxGameTreeNode;
+
+/**
+ * A complete, min-max ranked game tree stored as parallel primitive arrays rather than one object per node.
+ * Node i's parent, first child, next sibling, move and rank live at index i of their arrays;
+ * children are linked in cell order. Boards are not stored at all:
+ * a node's position is the root's board with the moves on its path from the root replayed.
+ * Objects are only created for the nodes actually looked at, as lazy GameTreeNode views,
+ * so a tree costs about 18 bytes per node instead of a full Board, node object and child list.
+ * Ranks are computed exactly as ComputerPlayer ranks a TicTacToeGameTreeNode tree.
+ */
+public class CompactGameTree {
+	
+	public static final int NONE = -1;
+	
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+	
+	private final Board root;
+	private final String rootPlayer;
+	private final int maxPlayer;
+	private int[] parents;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private short[] moves;
+	private int[] ranks;
+	private int size;
+	
+	/**
+	 * Builds and ranks the complete game tree rooted at board.
+	 * 
+	 * @param board the position at the root; it is copied
+	 * @param player the player whose turn it is at the root, and from whose perspective nodes are ranked
+	 */
+	public CompactGameTree(Board board, String player) {
+		root = new Board(board);
+		rootPlayer = player;
+		maxPlayer = Board.toPlayerIndex(player);
+		parents = new int[INITIAL_CAPACITY];
+		firstChildren = new int[INITIAL_CAPACITY];
+		nextSiblings = new int[INITIAL_CAPACITY];
+		moves = new short[INITIAL_CAPACITY];
+		ranks = new int[INITIAL_CAPACITY];
+		
+		BitBoard state = new BitBoard(board.getBitBoard());
+		int rootNode = addNode(NONE, TicTacToeGameTreeNode.NO_MOVE);
+		build(state, rootNode, maxPlayer);
+		trim();
+		if (Metrics.ENABLED) {
+			Metrics.TREE_NODES.add(size);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("CompactGameTree(%d nodes, root=%s)", size, root);
+	}
+	
+	/**
+	 * @return the number of nodes in the tree
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return a view of the root node
+	 */
+	public Node getRoot() {
+		return new Node(0, 0);
+	}
+	
+	public int getParent(int node) {
+		return parents[node];
+	}
+	
+	public int getFirstChild(int node) {
+		return firstChildren[node];
+	}
+	
+	public int getNextSibling(int node) {
+		return nextSiblings[node];
+	}
+	
+	/**
+	 * @param node index of the node
+	 * @return the cell of the move that led to node, or TicTacToeGameTreeNode.NO_MOVE for the root
+	 */
+	public int getMove(int node) {
+		return moves[node];
+	}
+	
+	public int getRank(int node) {
+		return ranks[node];
+	}
+	
+	/**
+	 * Returns the number of bytes the tree's arrays take, not counting array headers.
+	 * 
+	 * @return the storage used by the tree's nodes
+	 */
+	public long getStorageBytes() {
+		return (long)size * (Integer.BYTES * 4 + Short.BYTES);
+	}
+	
+	/**
+	 * Rebuilds the position at node by replaying the moves on its path onto a copy of the root's board.
+	 * 
+	 * @param node index of the node
+	 * @return a new Board holding node's position
+	 */
+	public Board getBoard(int node) {
+		int depth = 0;
+		for (int n = node; parents[n] != NONE; n = parents[n]) {
+			++depth;
+		}
+		int[] path = new int[depth];
+		for (int n = node; parents[n] != NONE; n = parents[n]) {
+			path[--depth] = moves[n];
+		}
+		
+		Board board = new Board(root);
+		String player = rootPlayer;
+		for (int cell : path) {
+			board.place(cell / board.getCols(), cell % board.getCols(), player);
+			player = Board.getOtherPlayer(player);
+		}
+		return board;
+	}
+	
+	/**
+	 * Appends the subtree below node, whose position is state with player to move, and ranks node.
+	 * Mirrors ComputerPlayer's min-max ranking of TicTacToeGameTreeNode trees.
+	 * 
+	 * @return the min-max score of node, from the root player's perspective
+	 */
+	private int build(BitBoard state, int node, int player) {
+		if (state.terminal()) {
+			int score = state.utility(maxPlayer);
+			ranks[node] = score;
+			return score;
+		}
+		
+		boolean maximizing = player == maxPlayer;
+		int otherPlayer = BitBoard.getOtherPlayer(player);
+		int optimalResult = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		int lastChild = NONE;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			int child = addNode(node, cell);
+			if (lastChild == NONE) {
+				firstChildren[node] = child;
+			}
+			else {
+				nextSiblings[lastChild] = child;
+			}
+			lastChild = child;
+			
+			state.place(cell, player);
+			int v = build(state, child, otherPlayer);
+			state.undo(cell);
+			if (maximizing ? v > optimalResult : v < optimalResult) {
+				ranks[node] += ranks[child];
+			}
+			optimalResult = maximizing ? Math.max(optimalResult, v) : Math.min(optimalResult, v);
+		}
+		for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+			ranks[node] = maximizing ? Math.max(ranks[node], ranks[child]) : Math.min(ranks[node], ranks[child]);
+		}
+		return optimalResult;
+	}
+	
+	private int addNode(int parent, int move) {
+		if (size == parents.length) {
+			if (size == MAX_CAPACITY) {
+				throw new IllegalStateException(String.format("game tree of %s has too many nodes", root));
+			}
+			int capacity = (int)Math.min(MAX_CAPACITY, 2L * size);
+			resize(capacity);
+		}
+		int node = size++;
+		parents[node] = parent;
+		firstChildren[node] = NONE;
+		nextSiblings[node] = NONE;
+		moves[node] = (short)move;
+		ranks[node] = 0;
+		return node;
+	}
+	
+	private void trim() {
+		if (size < parents.length) {
+			resize(size);
+		}
+	}
+	
+	private void resize(int capacity) {
+		parents = Arrays.copyOf(parents, capacity);
+		firstChildren = Arrays.copyOf(firstChildren, capacity);
+		nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+		moves = Arrays.copyOf(moves, capacity);
+		ranks = Arrays.copyOf(ranks, capacity);
+	}
+	
+	/**
+	 * Lazy GameTreeNode view of one node of the tree. Views are created on demand and hold nothing but an index,
+	 * so they can be discarded freely; the tree itself cannot be changed through them.
+	 */
+	public class Node implements GameTreeNode {
+		private final int index;
+		private final int depth;
+		
+		private Node(int index, int depth) {
+			this.index = index;
+			this.depth = depth;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("GameTreeNode(%s, rank=%d, player=%s)", getState().toString(), getRank(), getAdversaryType().toString());
+		}
+		
+		/**
+		 * Rebuilds the node's position; see CompactGameTree.getBoard.
+		 */
+		@Override
+		public GameState getState() {
+			return getBoard(index);
+		}
+		
+		@Override
+		public List<GameTreeNode> getChildren() {
+			List<GameTreeNode> children = new ArrayList<>();
+			for (int child = firstChildren[index]; child != NONE; child = nextSiblings[child]) {
+				children.add(new Node(child, depth + 1));
+			}
+			return children;
+		}
+		
+		/**
+		 * Creates the views of the children one at a time, without collecting them into a list.
+		 */
+		@Override
+		public Iterator<GameTreeNode> childIterator() {
+			return new Iterator<GameTreeNode>() {
+				private int child = firstChildren[index];
+				
+				@Override
+				public boolean hasNext() {
+					return child != NONE;
+				}
+				
+				@Override
+				public GameTreeNode next() {
+					if (child == NONE) {
+						throw new NoSuchElementException();
+					}
+					Node node = new Node(child, depth + 1);
+					child = nextSiblings[child];
+					return node;
+				}
+			};
+		}
+		
+		/**
+		 * Not supported; the tree is built all at once.
+		 */
+		@Override
+		public void addChild(GameTreeNode child) {
+			throw new UnsupportedOperationException("a CompactGameTree cannot be modified");
+		}
+		
+		public int getIndex() {
+			return index;
+		}
+		
+		public MinMaxGameTreeNode.AdversaryType getAdversaryType() {
+			return depth % 2 == 0 ? MinMaxGameTreeNode.AdversaryType.MAX : MinMaxGameTreeNode.AdversaryType.MIN;
+		}
+		
+		/**
+		 * @return the cell of the move that led to this node, or TicTacToeGameTreeNode.NO_MOVE for the root
+		 */
+		public int getMove() {
+			return moves[index];
+		}
+		
+		public int getRank() {
+			return ranks[index];
+		}
+	}
+}
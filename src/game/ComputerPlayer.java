@@ -1,51 +1,488 @@
 package game;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 
+import metrics.Metrics;
+import metrics.SearchEvent;
 import state.GameState;
 import state.GameTreeNode;
 import state.MinMaxGameTreeNode;
+import state.MinimaxSearch;
+import state.NegamaxSearch;
 import state.Player;
+import state.SearchEngine;
 
 
-public class ComputerPlayer extends Player {
+public class ComputerPlayer extends Player implements Agent {
 	
 	/**
-	 * Determines all possible empty locations remaining on board.
+	 * How the computer searches for its next move.
+	 * Every mode but GAME_TREE is a SearchEngine, and any other engine can be set in its place with setSearchEngine.
+	 * ALPHA_BETA prunes branches that cannot affect the result, trying promising moves first.
+	 * DEPTH_FIRST evaluates positions on the fly by making and unmaking moves on a single board,
+	 * so only the recursion stack is live; it runs a plain MinimaxSearch.
+	 * GAME_TREE materializes the complete game tree before searching it, and re-roots it on later turns;
+	 * useful for debugging and inspection.
+	 * PARALLEL splits the alpha-beta search across cores with a ParallelAlphaBetaSearch.
+	 * TABLEBASE looks the move up in a precomputed perfect-play Tablebase, falling back to ALPHA_BETA for boards it does not cover.
+	 * ITERATIVE_DEEPENING searches deeper and deeper until a time budget runs out, guessing at positions beyond its reach;
+	 * the only mode that stays responsive on large boards.
+	 * MONTE_CARLO plays the move that wins most often in random playouts, guided by a MonteCarloSearch tree;
+	 * like ITERATIVE_DEEPENING it works within a time budget, and needs no evaluation function.
+	 * NEGAMAX runs a NegamaxSearch: alpha-beta pruning alone, with no move ordering or transposition table.
+	 */
+	public static enum SearchMode {
+		ALPHA_BETA,
+		DEPTH_FIRST,
+		GAME_TREE,
+		PARALLEL,
+		TABLEBASE,
+		ITERATIVE_DEEPENING,
+		MONTE_CARLO,
+		NEGAMAX
+	}
+	
+	private final int playerIndex;
+	private final AlphaBetaSearch alphaBetaSearch;
+	private SearchMode searchMode;
+	private ParallelAlphaBetaSearch parallelSearch;
+	private Tablebase tablebase;
+	private IterativeDeepeningSearch iterativeSearch;
+	private MonteCarloSearch monteCarloSearch;
+	private MinimaxSearch minimaxSearch;
+	private NegamaxSearch negamaxSearch;
+	private TablebaseSearch tablebaseSearch;
+	private SearchEngine<? super BitBoard> searchEngine;
+	private PositionStore positionStore;
+	private TicTacToeGameTreeNode gameTree;
+	private long nodesVisited;
+	private boolean storeHit;
+	
+	/**
+	 * Constructs a new ComputerPlayer.
 	 * 
-	 * @param board the current game board to analyze
-	 * @return a Set of all empty coordinates
+	 * @param computerIcon the computer's icon
+	 * @param playerIcon the opposing player's icon
+	 * @param board the game board
+	 * @param searchMode how to search for moves
+	 * @param ordering the order ALPHA_BETA tries moves in
+	 * @param table cache kept across ALPHA_BETA searches, keyed by canonical (symmetry-reduced) position, or null to search without one
 	 */
-	private static Set<Pair> generateRemainingLocations(Board board) {
-		Set<Pair> remaining = new HashSet<>();
-		for (int r = 0; r < board.getRows(); ++r) {
-			for (int c = 0; c < board.getCols(); ++c) {
-				String value = board.getBoard().get(r).get(c);
-				if (value.equals(Board.EMPTY)) {
-					Pair pair = new Pair(r, c);
-					remaining.add(pair);
-				}
-			}
-		}
-		return remaining;
+	public ComputerPlayer(String computerIcon, String playerIcon, Board board, SearchMode searchMode, MoveOrdering ordering, TranspositionTable table) {
+		super(computerIcon);
+		playerIndex = Board.toPlayerIndex(computerIcon);
+		alphaBetaSearch = new AlphaBetaSearch(ordering, table, true);
+		this.searchMode = searchMode;
 	}
 	
+	public ComputerPlayer(String computerIcon, String playerIcon, Board board, SearchMode searchMode, MoveOrdering ordering) {
+		this(computerIcon, playerIcon, board, searchMode, ordering, new TranspositionTable(Zobrist.DEFAULT_TABLE_SIZE));
+	}
+	
+	public ComputerPlayer(String computerIcon, String playerIcon, Board board, SearchMode searchMode) {
+		this(computerIcon, playerIcon, board, searchMode, AlphaBetaSearch.defaultOrdering());
+	}
 	
 	public ComputerPlayer(String computerIcon, String playerIcon, Board board) {
-		super(computerIcon);
+		this(computerIcon, playerIcon, board, SearchMode.ALPHA_BETA);
+	}
+	
+	/**
+	 * Constructs a ComputerPlayer that chooses its moves with the given engine, whatever the search mode.
+	 * 
+	 * @param computerIcon the computer's icon
+	 * @param playerIcon the opposing player's icon
+	 * @param board the game board
+	 * @param searchEngine the engine to search with
+	 */
+	public ComputerPlayer(String computerIcon, String playerIcon, Board board, SearchEngine<? super BitBoard> searchEngine) {
+		this(computerIcon, playerIcon, board);
+		setSearchEngine(searchEngine);
 	}
 	
 	/**
 	 * Determines the next best move for the computer to make.
 	 * Runs a min-max search to find the optimal path to avoid defeat.
+	 * If a PositionStore is set, a move stored for the position is returned without searching.
+	 * While Metrics are enabled, records what the move cost.
 	 * 
 	 * @param board the current game board, before the computer has chosen its move
 	 * @return the Pair representing its next move; in the format (row, column)
 	 */
+	@Override
 	public Pair getNextMove(Board board) {
-		// min-max search from currentNode
+		if (Metrics.ENABLED) {
+			return getMeasuredNextMove(board);
+		}
+		return chooseNextMove(board, getSearchEngine());
+	}
+	
+	/**
+	 * @param board the current game board, before the computer has chosen its move
+	 * @param engine the engine to search with, or null to rank a game tree
+	 * @return the Pair representing its next move; in the format (row, column)
+	 */
+	private Pair chooseNextMove(Board board, SearchEngine<? super BitBoard> engine) {
+		nodesVisited = 0;
+		storeHit = false;
+		if (positionStore == null) {
+			return searchNextMove(board, engine);
+		}
+		
+		BitBoard state = board.getBitBoard();
+		long key = PositionStore.key(state, playerIndex);
+		int cell = positionStore.get(key);
+		if (cell != PositionStore.NO_MOVE && state.isEmpty(cell)) {
+			storeHit = true;
+			return Moves.toPair(cell, state.getCols());
+		}
+		Pair move = searchNextMove(board, engine);
+		positionStore.put(key, state.cell(move.getFirst(), move.getSecond()));
+		return move;
+	}
+	
+	/**
+	 * Chooses the next move, recording its cost in Metrics and in a SearchEvent.
+	 * 
+	 * @param board the current game board, before the computer has chosen its move
+	 * @return the Pair representing its next move; in the format (row, column)
+	 */
+	private Pair getMeasuredNextMove(Board board) {
+		BitBoard state = board.getBitBoard();
+		int emptyCells = state.getCells() - state.size();
+		SearchEngine<? super BitBoard> engine = getSearchEngine();
+		TranspositionTable table = transpositionTableOf(engine);
+		long tableHits = table == null ? 0 : table.getHits();
+		long tableMisses = table == null ? 0 : table.getMisses();
+		
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long start = System.nanoTime();
+		Pair move = chooseNextMove(board, engine);
+		long nanos = System.nanoTime() - start;
+		event.end();
+		
+		// only iterative deepening reports how deep it got; other engines do not have a single depth to report
+		int depth = !storeHit && engine instanceof IterativeDeepeningSearch ? ((IterativeDeepeningSearch)engine).getCompletedDepth() : -1;
+		Metrics.MOVES.increment();
+		Metrics.NODES.add(nodesVisited);
+		Metrics.MOVE_LATENCY.record(nanos);
+		Metrics.BRANCHING.record(emptyCells);
+		if (positionStore != null) {
+			(storeHit ? Metrics.STORE_HITS : Metrics.STORE_MISSES).increment();
+		}
+		if (!storeHit) {
+			Metrics.MOVE_NODES.record(nodesVisited);
+		}
+		if (depth >= 0) {
+			Metrics.MOVE_DEPTH.record(depth);
+		}
+		if (table != null) {
+			Metrics.TABLE_HITS.add(table.getHits() - tableHits);
+			Metrics.TABLE_MISSES.add(table.getMisses() - tableMisses);
+		}
+		
+		if (event.shouldCommit()) {
+			event.mode = searchEngine == null ? searchMode.name() : searchEngine.getClass().getSimpleName();
+			event.board = String.format("%dx%d k=%d", state.getRows(), state.getCols(), state.getWinLength());
+			event.emptyCells = emptyCells;
+			event.nodes = nodesVisited;
+			event.depth = depth;
+			event.storeHit = storeHit;
+			event.commit();
+		}
+		return move;
+	}
+	
+	/**
+	 * Searches for the next move with engine, on a copy of board.
+	 * 
+	 * @param board the current game board, before the computer has chosen its move
+	 * @param engine the engine to search with, or null to rank a game tree
+	 * @return the Pair representing its next move; in the format (row, column)
+	 */
+	private Pair searchNextMove(Board board, SearchEngine<? super BitBoard> engine) {
+		if (engine == null) {
+			return getGameTreeMove(board);
+		}
+		BitBoard state = new BitBoard(board.getBitBoard());
+		engine.resetStatistics();
+		int cell = engine.search(state, playerIndex);
+		nodesVisited = engine.getNodesVisited();
+		return Moves.toPair(cell, state.getCols());
+	}
+	
+	/**
+	 * @return the transposition table engine searches with, if it is one of the alpha-beta searches that keep one; otherwise null
+	 */
+	private static TranspositionTable transpositionTableOf(SearchEngine<? super BitBoard> engine) {
+		if (engine instanceof TablebaseSearch) {
+			engine = ((TablebaseSearch)engine).getFallback();
+		}
+		if (engine instanceof IterativeDeepeningSearch) {
+			return ((IterativeDeepeningSearch)engine).getSearch().getTranspositionTable();
+		}
+		return engine instanceof AlphaBetaSearch ? ((AlphaBetaSearch)engine).getTranspositionTable() : null;
+	}
+	
+	/**
+	 * Builds the complete game tree rooted at board, and runs a min-max search over it.
+	 * The returned tree has every node ranked, for debugging and inspection.
+	 * 
+	 * @param board the current game board, before the computer has chosen its move
+	 * @return the root of the searched game tree
+	 */
+	public TicTacToeGameTreeNode inspectGameTree(Board board) {
+		nodesVisited = 0;
 		TicTacToeGameTreeNode root = buildGameTree(MinMaxGameTreeNode.AdversaryType.MAX, board, getId());
-		minMaxSearch(root);
+		minMaxSearch(root, false);
+		return root;
+	}
+	
+	/**
+	 * Like inspectGameTree, but over a LazyTicTacToeGameTreeNode tree, whose nodes are generated as the search reaches them.
+	 * With releaseScored, every node below the root's children is generated for the search only and dropped once ranked,
+	 * so only the nodes along the current search path are held at once, and the returned root keeps just its ranked children.
+	 * 
+	 * @param board the current game board, before the computer has chosen its move; it is copied
+	 * @param releaseScored whether to release subtrees once they are ranked
+	 * @return the root of the searched game tree
+	 */
+	public LazyTicTacToeGameTreeNode inspectLazyGameTree(Board board, boolean releaseScored) {
+		nodesVisited = 0;
+		LazyTicTacToeGameTreeNode root = new LazyTicTacToeGameTreeNode(new Board(board), MinMaxGameTreeNode.AdversaryType.MAX, getId());
+		// the root keeps its ranked children either way
+		root.getChildren();
+		minMaxSearch(root, !releaseScored);
+		return root;
+	}
+
+	/**
+	 * Like inspectGameTree, but stores the ranked tree in a CompactGameTree,
+	 * which takes a fraction of the memory and so can hold the trees of larger boards.
+	 *
+	 * @param board the current game board, before the computer has chosen its move
+	 * @return the ranked game tree
+	 */
+	public CompactGameTree inspectCompactGameTree(Board board) {
+		CompactGameTree tree = new CompactGameTree(board, getId());
+		nodesVisited = tree.size();
+		return tree;
+	}
+
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+
+	public void setSearchMode(SearchMode searchMode) {
+		this.searchMode = searchMode;
+	}
+	
+	/**
+	 * Returns the engine getNextMove searches with:
+	 * the one set with setSearchEngine, or else the search mode's engine.
+	 * Each mode's engine is created once and kept, so its statistics and caches carry over between moves.
+	 * 
+	 * @return the search engine, or null in SearchMode.GAME_TREE, which ranks a materialized game tree instead
+	 */
+	public SearchEngine<? super BitBoard> getSearchEngine() {
+		if (searchEngine != null) {
+			return searchEngine;
+		}
+		switch (searchMode) {
+			case GAME_TREE:
+				return null;
+			case DEPTH_FIRST:
+				if (minimaxSearch == null) {
+					minimaxSearch = new MinimaxSearch();
+				}
+				return minimaxSearch;
+			case NEGAMAX:
+				if (negamaxSearch == null) {
+					negamaxSearch = new NegamaxSearch();
+				}
+				return negamaxSearch;
+			case PARALLEL:
+				return getParallelSearch();
+			case TABLEBASE:
+				if (tablebaseSearch == null) {
+					tablebaseSearch = new TablebaseSearch(getTablebase(), alphaBetaSearch);
+				}
+				return tablebaseSearch;
+			case ITERATIVE_DEEPENING:
+				return getIterativeDeepeningSearch();
+			case MONTE_CARLO:
+				return getMonteCarloSearch();
+			default:
+				return alphaBetaSearch;
+		}
+	}
+	
+	/**
+	 * Sets an engine to search with in place of the search mode's, e.g. to compare engines under the same harness.
+	 * 
+	 * @param searchEngine the engine, or null to search with the search mode's engine again
+	 */
+	public void setSearchEngine(SearchEngine<? super BitBoard> searchEngine) {
+		this.searchEngine = searchEngine;
+	}
+	
+	/**
+	 * Returns the search used by SearchMode.PARALLEL.
+	 * If none has been set, creates one using every available processor.
+	 * 
+	 * @return the parallel search
+	 */
+	public ParallelAlphaBetaSearch getParallelSearch() {
+		if (parallelSearch == null) {
+			parallelSearch = new ParallelAlphaBetaSearch();
+		}
+		return parallelSearch;
+	}
+	
+	/**
+	 * Sets the search used by SearchMode.PARALLEL, e.g. to configure its parallelism or sequential cutoff.
+	 * 
+	 * @param parallelSearch the parallel search
+	 */
+	public void setParallelSearch(ParallelAlphaBetaSearch parallelSearch) {
+		this.parallelSearch = parallelSearch;
+	}
+	
+	/**
+	 * Stops the worker threads of the parallel and Monte Carlo searches this player holds, whether it created them itself or they were set;
+	 * a search shared between players should instead be shut down by its owner, once every player is done with it.
+	 * The player cannot search in parallel afterwards.
+	 */
+	@Override
+	public void shutdown() {
+		if (parallelSearch != null) {
+			parallelSearch.shutdown();
+		}
+		if (monteCarloSearch != null) {
+			monteCarloSearch.shutdown();
+		}
+	}
+	
+	/**
+	 * Returns the tablebase used by SearchMode.TABLEBASE.
+	 * If none has been set, opens Tablebase.DEFAULT_PATH, generating it on first use.
+	 * 
+	 * @return the tablebase
+	 */
+	public Tablebase getTablebase() {
+		if (tablebase == null) {
+			try {
+				tablebase = Tablebase.openOrGenerate(Tablebase.DEFAULT_PATH);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return tablebase;
+	}
+
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+		tablebaseSearch = null;
+	}
+	
+	/**
+	 * Returns the search used by SearchMode.ITERATIVE_DEEPENING.
+	 * If none has been set, creates one with the default time budget.
+	 * 
+	 * @return the iterative-deepening search
+	 */
+	public IterativeDeepeningSearch getIterativeDeepeningSearch() {
+		if (iterativeSearch == null) {
+			iterativeSearch = new IterativeDeepeningSearch();
+		}
+		return iterativeSearch;
+	}
+	
+	/**
+	 * Sets the search used by SearchMode.ITERATIVE_DEEPENING, e.g. to configure its time budget or evaluator.
+	 * 
+	 * @param iterativeSearch the iterative-deepening search
+	 */
+	public void setIterativeDeepeningSearch(IterativeDeepeningSearch iterativeSearch) {
+		this.iterativeSearch = iterativeSearch;
+	}
+	
+	/**
+	 * Returns the search used by SearchMode.MONTE_CARLO.
+	 * If none has been set, creates a single-threaded one with the default time budget.
+	 * 
+	 * @return the Monte Carlo tree search
+	 */
+	public MonteCarloSearch getMonteCarloSearch() {
+		if (monteCarloSearch == null) {
+			monteCarloSearch = new MonteCarloSearch();
+		}
+		return monteCarloSearch;
+	}
+	
+	/**
+	 * Sets the search used by SearchMode.MONTE_CARLO, e.g. to configure its limits or threads.
+	 * The search keeps its tree between moves, so it should not be shared with another ComputerPlayer.
+	 * 
+	 * @param monteCarloSearch the Monte Carlo tree search
+	 */
+	public void setMonteCarloSearch(MonteCarloSearch monteCarloSearch) {
+		this.monteCarloSearch = monteCarloSearch;
+	}
+	
+	/**
+	 * @return the cache consulted before searching, or null
+	 */
+	public PositionStore getPositionStore() {
+		return positionStore;
+	}
+	
+	/**
+	 * Sets a cache of best moves to consult before searching, and to record search results in.
+	 * A thread-safe store can be shared by every ComputerPlayer of a server,
+	 * so that a position searched for one game is answered from the cache in all others.
+	 * Moves from the store are only as good as the search mode that found them.
+	 * 
+	 * @param positionStore the cache, or null to always search
+	 */
+	public void setPositionStore(PositionStore positionStore) {
+		this.positionStore = positionStore;
+	}
+	
+	/**
+	 * Returns the number of game positions the last call to getNextMove (or inspectGameTree) visited.
+	 * Useful for comparing how much of the tree each SearchMode has to look at.
+	 * 
+	 * @return the node-visit count of the last search
+	 */
+	public long getNodesVisited() {
+		return nodesVisited;
+	}
+	
+	/**
+	 * @return the transposition table kept across ALPHA_BETA searches, or null
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return alphaBetaSearch.getTranspositionTable();
+	}
+	
+	/**
+	 * Picks the highest ranked child of the game tree rooted at board.
+	 * The tree is kept between turns: after the opponent moves, the matching child of the computer's last move
+	 * becomes the new root, so the complete tree is only materialized on the first turn.
+	 * Sibling subtrees are released for garbage collection.
+	 * 
+	 * @param board the current game board, before the computer has chosen its move
+	 * @return the Pair representing its next move; in the format (row, column)
+	 */
+	private Pair getGameTreeMove(Board board) {
+		TicTacToeGameTreeNode root = findNode(gameTree, board);
+		if (root == null) {
+			root = inspectGameTree(board);
+		}
 		
 		TicTacToeGameTreeNode maxChild = null;
 		int maxScore = Integer.MIN_VALUE;
@@ -57,7 +494,29 @@ public class ComputerPlayer extends Player {
 			}
 		}
 		
-		return maxChild.getMove();
+		// the opponent's reply will be one of maxChild's children
+		gameTree = maxChild;
+		int cell = maxChild.getMove();
+		return Moves.toPair(cell, board.getCols());
+	}
+	
+	/**
+	 * Finds the child of node holding board, in O(b) time.
+	 * 
+	 * @param node the position after the computer's last move, or null
+	 * @param board the position after the opponent's reply
+	 * @return the matching child, or null if board is not one of node's children
+	 */
+	private TicTacToeGameTreeNode findNode(TicTacToeGameTreeNode node, Board board) {
+		if (node == null) {
+			return null;
+		}
+		for (GameTreeNode child : node.getChildren()) {
+			if (child.getState().equals(board)) {
+				return (TicTacToeGameTreeNode)child;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -65,52 +524,56 @@ public class ComputerPlayer extends Player {
 	 * Searches for an optimal path;
 	 * i.e., one that maximizes its score (from the perspective of a MAX node),
 	 * or one that minimizes its score (from the perpsective of a MIN node).
+	 * Children are walked once, through childIterator, so a lazily generated node that has not been expanded
+	 * produces its children for this walk only, and they can be collected as soon as they are ranked.
 	 * 
 	 * @param current root of the min-max game tree
+	 * @param expand whether to have lazily generated nodes keep their children, so that the whole ranked tree is kept
 	 * @return the integer representation of the score from current's perspective
 	 */
-	private int minMaxSearch(TicTacToeGameTreeNode current) {
+	private int minMaxSearch(TicTacToeGameTreeNode current, boolean expand) {
+		++nodesVisited;
 		GameState state = current.getState();
 		if (state.terminal()) {
 			int score = state.utility(this);
 			current.setRank(score);
 			return score;
 		}
+		if (expand) {
+			current.getChildren();
+		}
 		
+		// ranks are folded in as each child is searched, so a generated child is not needed again once it is ranked
 		int optimalResult;
 		if (current.getAdversaryType() == TicTacToeGameTreeNode.AdversaryType.MAX) {
 			optimalResult = Integer.MIN_VALUE;
-			for (GameTreeNode abstractChild : current.getChildren()) {
-				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)abstractChild;
-				int v = minMaxSearch(child);
+			int maxRank = Integer.MIN_VALUE;
+			for (Iterator<GameTreeNode> it = current.childIterator(); it.hasNext();) {
+				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)it.next();
+				int v = minMaxSearch(child, expand);
 				if (v > optimalResult) {
-					current.setRank(current.getRank() + child.getRank());	
+					current.setRank(current.getRank() + child.getRank());
 				}
 				optimalResult = Math.max(optimalResult, v);
+				maxRank = Math.max(maxRank, child.getRank());
 			}
-			for (GameTreeNode abstractChild : current.getChildren()) {
-				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)abstractChild;
-				int maxScore = Math.max(current.getRank(), child.getRank());
-				current.setRank(maxScore);
-			}
+			current.setRank(Math.max(current.getRank(), maxRank));
 		}
 		else {
 			optimalResult = Integer.MAX_VALUE;
-			for (GameTreeNode abstractChild : current.getChildren()) {
-				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)abstractChild;
-				int v = minMaxSearch(child);
+			int minRank = Integer.MAX_VALUE;
+			for (Iterator<GameTreeNode> it = current.childIterator(); it.hasNext();) {
+				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)it.next();
+				int v = minMaxSearch(child, expand);
 				if (v < optimalResult) {
-					current.setRank(current.getRank() + child.getRank());	
+					current.setRank(current.getRank() + child.getRank());
 				}
 				optimalResult = Math.min(optimalResult, v);
+				minRank = Math.min(minRank, child.getRank());
 			}
-			for (GameTreeNode abstractChild : current.getChildren()) {
-				TicTacToeGameTreeNode child = (TicTacToeGameTreeNode)abstractChild;
-				int minScore = Math.min(current.getRank(), child.getRank());
-				current.setRank(minScore);
-			}
+			current.setRank(Math.min(current.getRank(), minRank));
 		}
-
+		
 		return optimalResult;
 	}
 	
@@ -127,19 +590,21 @@ public class ComputerPlayer extends Player {
 	 */
 	private TicTacToeGameTreeNode buildGameTree(TicTacToeGameTreeNode.AdversaryType adversaryType, Board currentBoard, String player) {
 		TicTacToeGameTreeNode node = new TicTacToeGameTreeNode(currentBoard, adversaryType);
+		if (Metrics.ENABLED) {
+			Metrics.TREE_NODES.increment();
+		}
 		
 		if (!currentBoard.terminal()) {
-			Set<Pair> remainingLocations = generateRemainingLocations(currentBoard);
+			BitBoard state = currentBoard.getBitBoard();
+			String otherPlayer = Board.getOtherPlayer(player);
+			TicTacToeGameTreeNode.AdversaryType otherType = TicTacToeGameTreeNode.reverseAdversaryType(adversaryType);
 			
-			for (Pair pair : remainingLocations) {
-				int row = pair.getFirst();
-				int col = pair.getSecond();
+			// children are in cell order, so ties between equally ranked moves are broken the same way every time
+			for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
 				Board copy = new Board(currentBoard);
-				copy.place(row, col, player);
-				String otherPlayer = Board.getOtherPlayer(player);
-				TicTacToeGameTreeNode.AdversaryType otherType = TicTacToeGameTreeNode.reverseAdversaryType(adversaryType);
+				copy.place(cell / state.getCols(), cell % state.getCols(), player);
 				TicTacToeGameTreeNode child = buildGameTree(otherType, copy, otherPlayer);
-				child.setMove(row, col);
+				child.setMove(cell);
 				node.addChild(child);
 			}
 		}
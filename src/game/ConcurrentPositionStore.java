@@ -0,0 +1,41 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free PositionStore on the heap, holding its slots in an AtomicLongArray.
+ */
+public class ConcurrentPositionStore extends ProbingPositionStore {
+	
+	private final AtomicLongArray entries;
+	
+	/**
+	 * Constructs a store with at least the given number of slots, rounded up to a power of two.
+	 * 
+	 * @param capacity the minimum number of entries
+	 */
+	public ConcurrentPositionStore(int capacity) {
+		super(Zobrist.tableSize(capacity));
+		entries = new AtomicLongArray(getCapacity());
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("ConcurrentPositionStore(capacity=%d, hits=%d, misses=%d)", getCapacity(), getHits(), getMisses());
+	}
+	
+	@Override
+	protected long getSlot(int slot) {
+		return entries.get(slot);
+	}
+	
+	@Override
+	protected void setSlot(int slot, long entry) {
+		entries.set(slot, entry);
+	}
+	
+	@Override
+	protected boolean compareAndSetSlot(int slot, long expected, long entry) {
+		return entries.compareAndSet(slot, expected, entry);
+	}
+}
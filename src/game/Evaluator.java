@@ -0,0 +1,23 @@
+package game;
+
+/**
+ * Static evaluation of a position, used when a depth-limited search reaches its horizon
+ * without the game having ended.
+ */
+public interface Evaluator {
+	
+	/**
+	 * Score of a won position. Heuristic scores must lie strictly between -WIN_SCORE and WIN_SCORE,
+	 * so that a proven result always outranks a guess.
+	 */
+	public static final int WIN_SCORE = 1 << 24;
+	
+	/**
+	 * Estimates how good state is for player.
+	 * 
+	 * @param state a non-terminal position
+	 * @param player the player whose turn it is in state
+	 * @return the estimated score of state from player's perspective
+	 */
+	public int evaluate(BitBoard state, int player);
+}
@@ -53,6 +53,16 @@ public class Game {
 		return in.nextInt();
 	}
 	
+	/**
+	 * Returns the search mode the computer plays with, set at startup with -Dsearch.mode=MODE;
+	 * ALPHA_BETA if none is set.
+	 * 
+	 * @return the computer's search mode
+	 */
+	private static ComputerPlayer.SearchMode getSearchMode() {
+		return ComputerPlayer.SearchMode.valueOf(System.getProperty("search.mode", ComputerPlayer.SearchMode.ALPHA_BETA.name()).toUpperCase());
+	}
+	
 	
 	private final String playerIcon;
 	private final String opponentIcon;
@@ -71,12 +81,12 @@ public class Game {
 		this.playerGoesFirst = playerGoesFirst;
 		opponentIcon = playerIcon.equals(Board.PLAYER1) ? Board.PLAYER2 : Board.PLAYER1;
 		board = new Board();
-		opponent = new ComputerPlayer(opponentIcon, playerIcon, board);
+		opponent = new ComputerPlayer(opponentIcon, playerIcon, board, getSearchMode());
 	}
 	
 	/**
 	 * Starts the game. Prints the board, allows for user input, and allows computer to play.
-	 * Ends the game when someone has won, or it's a tie.
+	 * Ends the game when someone has won, or it's a tie, and then stops the computer's search threads.
 	 */
 	public void play() {
 		printGame();
@@ -97,6 +107,7 @@ public class Game {
 				break;
 			}
 		}
+		opponent.shutdown();
 	}
 	
 	/**
@@ -0,0 +1,242 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams the games of a game-record file, one record at a time, through a fixed read buffer,
+ * so files of any size are scanned without holding them in memory or creating a Board per game.
+ * The current record's moves are read into a reused array, and its positions can be rebuilt as PositionCodec words.
+ * A record cut short at the end of the file, as a crash while appending would leave it, is treated as the end of the file.
+ * 
+ * File layout (big-endian): int magic, byte version, byte rows, byte cols, byte win length,
+ * then one record per game: unsigned short move count, byte winner (EMPTY for a draw or unfinished game),
+ * then the cell of every move in the order played, X first:
+ * one unsigned byte per move on boards of at most 256 cells, an unsigned short on larger ones.
+ */
+public class GameRecordReader implements AutoCloseable {
+	static final int MAGIC = 0x54544752;		// "TTGR"
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	static final int RECORD_HEADER_SIZE = 3;
+	
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	/**
+	 * @param cells the number of cells on the board
+	 * @return the number of bytes each move takes in a record
+	 */
+	static int moveSize(int cells) {
+		return cells <= 256 ? 1 : 2;
+	}
+	
+	
+	private final Path path;
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int moveSize;
+	private final int[] moves;
+	// the cells played in the current record, to reject a record that plays one twice
+	private final long[] played;
+	private long bufferOffset;
+	private long recordOffset;
+	private int moveCount;
+	private int winner;
+	private long records;
+	private boolean ended;
+	
+	/**
+	 * Opens a game-record file and reads its header.
+	 * 
+	 * @param path location of the file
+	 * @throws IOException if the file cannot be read, or is not a game-record file
+	 */
+	public GameRecordReader(Path path) throws IOException {
+		this.path = path;
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+			buffer.limit(0);
+			if (!fill(HEADER_SIZE) || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+				throw new IOException(String.format("%s is not a game-record file", path));
+			}
+			rows = buffer.get() & 0xFF;
+			cols = buffer.get() & 0xFF;
+			winLength = buffer.get() & 0xFF;
+			if (rows == 0 || cols == 0 || rows * cols > BitBoard.MAX_CELLS) {
+				throw new IOException(String.format("%s has an unsupported board size %dx%d", path, rows, cols));
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		moveSize = moveSize(rows * cols);
+		moves = new int[rows * cols];
+		played = new long[(rows * cols + 63) >>> 6];
+		recordOffset = HEADER_SIZE;
+	}
+	
+	/**
+	 * Advances to the next record.
+	 * 
+	 * @return true if there was another complete record, false at the end of the file
+	 * @throws IOException if the file cannot be read, or holds a record that is not a valid game
+	 */
+	public boolean next() throws IOException {
+		if (ended) {
+			return false;
+		}
+		recordOffset = bufferOffset + buffer.position();
+		if (!fill(RECORD_HEADER_SIZE)) {
+			ended = true;
+			return false;
+		}
+		int count = buffer.getShort() & 0xFFFF;
+		int result = buffer.get();
+		if (count > moves.length || result < BitBoard.EMPTY || result > BitBoard.PLAYER2) {
+			throw new IOException(String.format("%s has a corrupt record at offset %d", path, recordOffset));
+		}
+		if (!fill(count * moveSize)) {
+			ended = true;
+			return false;
+		}
+		Arrays.fill(played, 0);
+		for (int i = 0; i < count; ++i) {
+			int move = moveSize == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+			if (move >= moves.length || (played[move >>> 6] & 1L << move) != 0) {
+				throw new IOException(String.format("%s has a corrupt record at offset %d", path, recordOffset));
+			}
+			played[move >>> 6] |= 1L << move;
+			moves[i] = move;
+		}
+		moveCount = count;
+		winner = result;
+		++records;
+		return true;
+	}
+	
+	/**
+	 * Makes sure the buffer holds at least size unread bytes, reading more of the file if needed.
+	 * 
+	 * @return false if the file ends first
+	 */
+	private boolean fill(int size) throws IOException {
+		if (buffer.remaining() >= size) {
+			return true;
+		}
+		bufferOffset += buffer.position();
+		buffer.compact();
+		while (buffer.position() < size) {
+			if (channel.read(buffer) < 0) {
+				buffer.flip();
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+	
+	/**
+	 * Rebuilds the position after the first plies moves of the current record, without creating a board.
+	 * 
+	 * @param plies the number of moves to play; at most getMoveCount()
+	 * @param words the array to write the position to, as PositionCodec words
+	 * @param offset the index of the first word
+	 */
+	public void getPosition(int plies, long[] words, int offset) {
+		if (plies < 0 || plies > moveCount) {
+			throw new IllegalArgumentException(String.format("invalid ply %d for a game of %d moves", plies, moveCount));
+		}
+		Arrays.fill(words, offset, offset + PositionCodec.wordsFor(moves.length), 0);
+		int player = BitBoard.PLAYER1;
+		for (int i = 0; i < plies; ++i) {
+			PositionCodec.set(words, offset, moves[i], player);
+			player = BitBoard.getOtherPlayer(player);
+		}
+	}
+	
+	/**
+	 * Replays the first plies moves of the current record on a new board.
+	 * 
+	 * @param plies the number of moves to play; at most getMoveCount()
+	 * @return the position after those moves
+	 */
+	public BitBoard getBitBoard(int plies) {
+		if (plies < 0 || plies > moveCount) {
+			throw new IllegalArgumentException(String.format("invalid ply %d for a game of %d moves", plies, moveCount));
+		}
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		int player = BitBoard.PLAYER1;
+		for (int i = 0; i < plies; ++i) {
+			state.place(moves[i], player);
+			player = BitBoard.getOtherPlayer(player);
+		}
+		return state;
+	}
+	
+	/**
+	 * @param ply the index of the move in the current record
+	 * @return the cell played
+	 */
+	public int getMove(int ply) {
+		if (ply < 0 || ply >= moveCount) {
+			throw new IndexOutOfBoundsException(String.format("invalid ply %d for a game of %d moves", ply, moveCount));
+		}
+		return moves[ply];
+	}
+	
+	public int getMoveCount() {
+		return moveCount;
+	}
+	
+	/**
+	 * @return the winner of the current record, or EMPTY for a draw or unfinished game
+	 */
+	public int getWinner() {
+		return winner;
+	}
+	
+	/**
+	 * @return the file offset of the current record; after next() returns false, the end of the last complete record
+	 */
+	public long getRecordOffset() {
+		return recordOffset;
+	}
+	
+	/**
+	 * @return the number of records read so far
+	 */
+	public long getRecords() {
+		return records;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getWinLength() {
+		return winLength;
+	}
+	
+	public Path getPath() {
+		return path;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
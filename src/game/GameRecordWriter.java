@@ -0,0 +1,167 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends finished games to a game-record file, in the layout GameRecordReader documents.
+ * Records are collected in a direct buffer and written to the file in large blocks, always whole records at a time.
+ * Opening an existing file checks that it records the same board, and scans it once
+ * to cut off a record left incomplete by a crash, so new records always follow a complete one.
+ * Appending is synchronized, so one writer can record the games of many threads.
+ */
+public class GameRecordWriter implements AutoCloseable {
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private final Path path;
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int moveSize;
+	private long records;
+	
+	/**
+	 * Opens path for appending, creating it with a header for the given board if it does not exist.
+	 * 
+	 * @param path location of the file
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @throws IOException if the file cannot be written, or records a different board
+	 */
+	public GameRecordWriter(Path path, int rows, int cols, int winLength) throws IOException {
+		if (rows <= 0 || cols <= 0 || rows > 0xFF || cols > 0xFF || rows * cols > BitBoard.MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("unsupported board size %dx%d", rows, cols));
+		}
+		this.path = path;
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		moveSize = GameRecordReader.moveSize(rows * cols);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			if (channel.size() == 0) {
+				buffer.putInt(GameRecordReader.MAGIC).put(GameRecordReader.VERSION).put((byte)rows).put((byte)cols).put((byte)winLength);
+				flush();
+			}
+			else {
+				channel.position(validLength());
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Reads the existing file through to its last complete record, and cuts off anything after it.
+	 * 
+	 * @return the length of the file's complete records
+	 */
+	private long validLength() throws IOException {
+		try (GameRecordReader reader = new GameRecordReader(path)) {
+			if (reader.getRows() != rows || reader.getCols() != cols || reader.getWinLength() != winLength) {
+				throw new IOException(String.format("%s records %dx%d k=%d games, not %dx%d k=%d",
+						path, reader.getRows(), reader.getCols(), reader.getWinLength(), rows, cols, winLength));
+			}
+			while (reader.next()) {
+				++records;
+			}
+			long length = reader.getRecordOffset();
+			if (channel.size() > length) {
+				channel.truncate(length);
+			}
+			return length;
+		}
+	}
+	
+	/**
+	 * Appends one game.
+	 * 
+	 * @param moves the cells played, X first
+	 * @param count the number of moves in the game
+	 * @param winner the player who won, or EMPTY for a draw or unfinished game
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void append(int[] moves, int count, int winner) throws IOException {
+		if (count < 0 || count > rows * cols || winner < BitBoard.EMPTY || winner > BitBoard.PLAYER2) {
+			throw new IllegalArgumentException(String.format("invalid game of %d moves won by %d", count, winner));
+		}
+		if (buffer.remaining() < GameRecordReader.RECORD_HEADER_SIZE + count * moveSize) {
+			flush();
+		}
+		buffer.putShort((short)count).put((byte)winner);
+		for (int i = 0; i < count; ++i) {
+			if (moves[i] < 0 || moves[i] >= rows * cols) {
+				// drop the partial record, so the buffer only ever holds whole ones
+				buffer.position(buffer.position() - GameRecordReader.RECORD_HEADER_SIZE - i * moveSize);
+				throw new IllegalArgumentException(String.format("invalid move %d on a %dx%d board", moves[i], rows, cols));
+			}
+			if (moveSize == 1) {
+				buffer.put((byte)moves[i]);
+			}
+			else {
+				buffer.putShort((short)moves[i]);
+			}
+		}
+		++records;
+	}
+	
+	/**
+	 * Writes the buffered records to the file.
+	 * 
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * @return the number of records in the file, including those still buffered
+	 */
+	public synchronized long getRecords() {
+		return records;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getWinLength() {
+		return winLength;
+	}
+	
+	public Path getPath() {
+		return path;
+	}
+	
+	/**
+	 * Writes the buffered records and closes the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		}
+		finally {
+			channel.close();
+		}
+	}
+}
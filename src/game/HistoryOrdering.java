@@ -0,0 +1,52 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * History heuristic: every cutoff credits the move with depth^2,
+ * so moves that were good anywhere in the tree are tried earlier everywhere else.
+ * Ties are broken by the fallback ordering.
+ */
+public class HistoryOrdering implements MoveOrdering {
+	
+	private static final int FALLBACK_WEIGHT = 16;
+	
+	private final MoveOrdering fallback;
+	private int[] history;
+	
+	public HistoryOrdering(MoveOrdering fallback) {
+		this.fallback = fallback;
+		history = new int[0];
+	}
+
+	/**
+	 * @see MoveOrdering#score(BitBoard, int, int)
+	 */
+	@Override
+	public int score(BitBoard state, int move, int ply) {
+		int credit = move < history.length ? history[move] : 0;
+		return credit * FALLBACK_WEIGHT + fallback.score(state, move, ply);
+	}
+
+	/**
+	 * @see MoveOrdering#cutoff(int, int, int)
+	 */
+	@Override
+	public void cutoff(int move, int ply, int depth) {
+		fallback.cutoff(move, ply, depth);
+		if (move >= history.length) {
+			history = Arrays.copyOf(history, Math.max(move + 1, 2 * history.length));
+		}
+		// saturate rather than overflow into negative scores on very long searches
+		history[move] = Math.min(history[move] + depth * depth, 1 << 16);
+	}
+
+	/**
+	 * @see MoveOrdering#reset()
+	 */
+	@Override
+	public void reset() {
+		fallback.reset();
+		Arrays.fill(history, 0);
+	}
+}
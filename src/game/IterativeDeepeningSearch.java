@@ -0,0 +1,138 @@
+package game;
+import java.util.concurrent.TimeUnit;
+
+import state.SearchEngine;
+
+/**
+ * Iterative-deepening driver around a depth-limited AlphaBetaSearch.
+ * Searches 1, 2, 3, ... moves ahead until the per-move time budget runs out,
+ * and plays the best move of the deepest search that completed.
+ * Each iteration searches the previous iteration's best move first,
+ * and reuses the transposition table and move ordering it filled in,
+ * so the shallower searches mostly pay for themselves.
+ * Unlike an exhaustive search, the response time is bounded on any board size.
+ */
+public class IterativeDeepeningSearch implements SearchEngine<BitBoard> {
+	
+	/**
+	 * Time budget per move used when none is given.
+	 */
+	public static final long DEFAULT_BUDGET_MILLIS = 1000;
+	
+	private final AlphaBetaSearch search;
+	private long budgetMillis;
+	private int completedDepth;
+	private int bestScore;
+	private boolean timedOut;
+	
+	/**
+	 * @param search the depth-limited search to drive
+	 * @param budgetMillis wall-clock time allowed per move, in milliseconds
+	 */
+	public IterativeDeepeningSearch(AlphaBetaSearch search, long budgetMillis) {
+		this.search = search;
+		setBudgetMillis(budgetMillis);
+	}
+	
+	public IterativeDeepeningSearch(long budgetMillis) {
+		this(new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(Zobrist.DEFAULT_TABLE_SIZE), true), budgetMillis);
+	}
+	
+	public IterativeDeepeningSearch() {
+		this(DEFAULT_BUDGET_MILLIS);
+	}
+	
+	/**
+	 * Finds the best move for player in state that can be found within the time budget.
+	 * The first iteration always runs to completion, so some move is returned even with a budget of zero.
+	 * state is restored to its original position before returning.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @return the cell index of the best move
+	 */
+	@Override
+	public int search(BitBoard state, int player) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		int remaining = state.getCells() - state.size();
+		search.resetOrdering();
+		timedOut = false;
+		
+		int bestMove = search.search(state, player, 1, AlphaBetaSearch.NO_DEADLINE, TranspositionTable.NO_MOVE);
+		bestScore = search.getBestScore();
+		completedDepth = 1;
+		
+		// a proven win or loss cannot be improved on by looking further ahead
+		while (completedDepth < remaining && Math.abs(bestScore) < Evaluator.WIN_SCORE) {
+			try {
+				bestMove = search.search(state, player, completedDepth + 1, deadline, bestMove);
+			}
+			catch (SearchTimeoutException e) {
+				timedOut = true;
+				break;
+			}
+			bestScore = search.getBestScore();
+			++completedDepth;
+		}
+		
+		return bestMove;
+	}
+	
+	/**
+	 * Returns the depth of the deepest iteration the last search completed.
+	 * 
+	 * @return the number of moves the last search looked ahead
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+	
+	/**
+	 * Returns the score of the move chosen by the last search, from the searching player's perspective.
+	 * 
+	 * @return the score at getCompletedDepth(); see AlphaBetaSearch.getBestScore
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+	
+	/**
+	 * @return true if the last search ran out of time before looking to the end of the game
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+	
+	@Override
+	public long getNodesVisited() {
+		return search.getNodesVisited();
+	}
+	
+	@Override
+	public void resetStatistics() {
+		search.resetStatistics();
+	}
+	
+	@Override
+	public void clear() {
+		search.clear();
+	}
+	
+	public long getBudgetMillis() {
+		return budgetMillis;
+	}
+	
+	public void setBudgetMillis(long budgetMillis) {
+		if (budgetMillis < 0) {
+			throw new IllegalArgumentException(String.format("invalid budget %dms", budgetMillis));
+		}
+		this.budgetMillis = budgetMillis;
+	}
+	
+	/**
+	 * @return the depth-limited search driven by this one
+	 */
+	public AlphaBetaSearch getSearch() {
+		return search;
+	}
+}
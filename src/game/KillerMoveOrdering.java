@@ -0,0 +1,74 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Killer-move heuristic: remembers the last two moves that caused a cutoff at each ply,
+ * and tries them before any other move at that ply.
+ * Remaining moves are ordered by the fallback ordering.
+ */
+public class KillerMoveOrdering implements MoveOrdering {
+	
+	private static final int KILLER_BONUS = 1 << 24;
+	private static final int NONE = -1;
+	
+	private final MoveOrdering fallback;
+	private int[] primary;
+	private int[] secondary;
+	
+	public KillerMoveOrdering(MoveOrdering fallback) {
+		this.fallback = fallback;
+		primary = new int[0];
+		secondary = new int[0];
+	}
+
+	/**
+	 * @see MoveOrdering#score(BitBoard, int, int)
+	 */
+	@Override
+	public int score(BitBoard state, int move, int ply) {
+		int score = fallback.score(state, move, ply);
+		if (ply < primary.length) {
+			if (primary[ply] == move) {
+				score += 2 * KILLER_BONUS;
+			}
+			else if (secondary[ply] == move) {
+				score += KILLER_BONUS;
+			}
+		}
+		return score;
+	}
+
+	/**
+	 * @see MoveOrdering#cutoff(int, int, int)
+	 */
+	@Override
+	public void cutoff(int move, int ply, int depth) {
+		fallback.cutoff(move, ply, depth);
+		if (ply >= primary.length) {
+			int length = Math.max(ply + 1, 2 * primary.length);
+			primary = grow(primary, length);
+			secondary = grow(secondary, length);
+		}
+		if (primary[ply] != move) {
+			secondary[ply] = primary[ply];
+			primary[ply] = move;
+		}
+	}
+
+	/**
+	 * @see MoveOrdering#reset()
+	 */
+	@Override
+	public void reset() {
+		fallback.reset();
+		Arrays.fill(primary, NONE);
+		Arrays.fill(secondary, NONE);
+	}
+	
+	private static int[] grow(int[] killers, int length) {
+		int[] grown = Arrays.copyOf(killers, length);
+		Arrays.fill(grown, killers.length, length, NONE);
+		return grown;
+	}
+}
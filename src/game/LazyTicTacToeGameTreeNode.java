@@ -0,0 +1,105 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import metrics.Metrics;
+import state.GameTreeNode;
+
+/**
+ * A TicTacToeGameTreeNode whose children are generated from its board on first access, rather than built up front,
+ * so only the parts of the tree a search or tool actually visits ever exist.
+ * getChildren generates and keeps the children, in cell order as ComputerPlayer builds them;
+ * childIterator, before then, generates them one at a time without keeping them.
+ * releaseChildren drops the kept children, for example once a subtree has been ranked, and they are regenerated if asked for again.
+ */
+public class LazyTicTacToeGameTreeNode extends TicTacToeGameTreeNode {
+	
+	private final Board board;
+	private final String player;
+	
+	/**
+	 * @param board the position at this node; it is not copied, and must not be changed afterwards
+	 * @param adversaryType the type of the node (MAX or MIN)
+	 * @param player the player whose turn it is at this node
+	 */
+	public LazyTicTacToeGameTreeNode(Board board, AdversaryType adversaryType, String player) {
+		super(board, adversaryType);
+		this.board = board;
+		this.player = player;
+		if (Metrics.ENABLED) {
+			Metrics.TREE_NODES.increment();
+		}
+	}
+	
+	@Override
+	public List<GameTreeNode> getChildren() {
+		List<GameTreeNode> children = getChildList();
+		if (children == null) {
+			children = new ArrayList<>(board.getRows() * board.getCols() - board.size());
+			for (Iterator<GameTreeNode> it = new ChildGenerator(); it.hasNext();) {
+				children.add(it.next());
+			}
+			setChildList(children);
+		}
+		return children;
+	}
+	
+	@Override
+	public Iterator<GameTreeNode> childIterator() {
+		List<GameTreeNode> children = getChildList();
+		return children != null ? children.iterator() : new ChildGenerator();
+	}
+	
+	/**
+	 * Not supported; children are generated from the board.
+	 */
+	@Override
+	public void addChild(GameTreeNode child) {
+		throw new UnsupportedOperationException("the children of a LazyTicTacToeGameTreeNode are generated");
+	}
+	
+	@Override
+	public void releaseChildren() {
+		setChildList(null);
+	}
+	
+	/**
+	 * @return true if the children have been generated and are being kept
+	 */
+	public boolean isExpanded() {
+		return getChildList() != null;
+	}
+	
+	public String getPlayer() {
+		return player;
+	}
+	
+	/**
+	 * Creates the child for each empty cell in turn; a terminal board has none.
+	 */
+	private class ChildGenerator implements Iterator<GameTreeNode> {
+		private final BitBoard state = board.getBitBoard();
+		private int cell = board.terminal() ? -1 : state.nextEmpty(0);
+		
+		@Override
+		public boolean hasNext() {
+			return cell >= 0;
+		}
+		
+		@Override
+		public GameTreeNode next() {
+			if (cell < 0) {
+				throw new NoSuchElementException();
+			}
+			Board copy = new Board(board);
+			copy.place(cell / state.getCols(), cell % state.getCols(), player);
+			LazyTicTacToeGameTreeNode child = new LazyTicTacToeGameTreeNode(copy, reverseAdversaryType(getAdversaryType()), Board.getOtherPlayer(player));
+			child.setMove(cell);
+			cell = state.nextEmpty(cell + 1);
+			return child;
+		}
+	}
+}
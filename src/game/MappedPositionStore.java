@@ -0,0 +1,190 @@
+package game;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * PositionStore kept in a memory-mapped file, so that every process on a host that opens the same file shares one store,
+ * and what it holds survives restarts.
+ * The file is a small header followed by a fixed number of slots, laid out and probed like ConcurrentPositionStore's.
+ * Slots are read and written with atomic instructions on the mapped memory, which are atomic across processes too,
+ * so a move stored by one process is visible to the others at once, without locks or system calls.
+ * The header is big-endian, like the game-record format; the slots are in the host's native order,
+ * which every process sharing them agrees on, since atomic updates only reach other processes on the same host.
+ * Hit and miss counts are kept per process.
+ */
+public class MappedPositionStore extends ProbingPositionStore implements AutoCloseable {
+	
+	// the last byte is the format version
+	private static final long MAGIC = 0x5454545053544F02L;
+	private static final int HEADER_BYTES = 64;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int MAX_CAPACITY = 1 << 27;
+	
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	
+	// file locks are held by the whole JVM, so stores opening the same file in one JVM take turns on these first
+	private static final ConcurrentMap<Path, Object> INITIALIZING = new ConcurrentHashMap<>();
+	
+	/**
+	 * An open, initialized store file, before the store around it is constructed.
+	 */
+	private static final class Mapping {
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private final int slots;
+		
+		private Mapping(FileChannel channel, MappedByteBuffer buffer, int slots) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.slots = slots;
+		}
+	}
+	
+	private final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	
+	/**
+	 * Opens the store in path, creating the file with at least the given number of slots, rounded up to a power of two,
+	 * if it does not exist yet. An existing store keeps the capacity it was created with.
+	 * Any number of processes may open the same file at once.
+	 * 
+	 * @param path the file holding the store
+	 * @param capacity the minimum number of entries of a new store
+	 * @throws IOException if the file cannot be created or mapped, or holds something other than a position store
+	 */
+	public MappedPositionStore(Path path, int capacity) throws IOException {
+		this(path, open(path, capacity));
+	}
+	
+	private MappedPositionStore(Path path, Mapping mapping) {
+		super(mapping.slots);
+		this.path = path;
+		channel = mapping.channel;
+		buffer = mapping.buffer;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("MappedPositionStore(%s, capacity=%d, hits=%d, misses=%d)", path, getCapacity(), getHits(), getMisses());
+	}
+	
+	public Path getPath() {
+		return path;
+	}
+	
+	/**
+	 * Writes the store's changes through to the file. Other processes see them without this;
+	 * it only matters for surviving a crash of the host.
+	 */
+	public void flush() {
+		buffer.force();
+	}
+	
+	/**
+	 * Flushes the store and closes the file. The store must not be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		channel.close();
+	}
+	
+	@Override
+	protected long getSlot(int slot) {
+		return (long)LONGS.getVolatile(buffer, offset(slot));
+	}
+	
+	@Override
+	protected void setSlot(int slot, long entry) {
+		LONGS.setVolatile(buffer, offset(slot), entry);
+	}
+	
+	@Override
+	protected boolean compareAndSetSlot(int slot, long expected, long entry) {
+		return LONGS.compareAndSet(buffer, offset(slot), expected, entry);
+	}
+	
+	private static int offset(int slot) {
+		return HEADER_BYTES + slot * Long.BYTES;
+	}
+	
+	/**
+	 * Opens and maps the file, initializing it if it is new.
+	 */
+	private static Mapping open(Path path, int capacity) throws IOException {
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException(String.format("invalid capacity %d", capacity));
+		}
+		int slots = Zobrist.tableSize(capacity);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			synchronized (INITIALIZING.computeIfAbsent(path.toRealPath(), p -> new Object())) {
+				slots = initialize(path, channel, slots);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long)slots * Long.BYTES);
+			return new Mapping(channel, buffer, slots);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Writes the header of a new, empty file, or checks the header of an existing one.
+	 * Holds the file's lock meanwhile, so processes opening the same new file at once agree on its layout;
+	 * within this JVM, stores opening the same file are serialized first, since they cannot each hold the file's lock.
+	 * The magic is written last, so a file without it was never used, and is initialized again.
+	 * 
+	 * @param slots the number of slots to create a new store with
+	 * @return the number of slots in the store
+	 */
+	private static int initialize(Path path, FileChannel channel, int slots) throws IOException {
+		FileLock lock = channel.lock();
+		try {
+			if (channel.size() >= HEADER_BYTES) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+				while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+					// a file read may return part of the header
+				}
+				long magic = header.getLong(MAGIC_OFFSET);
+				long capacity = header.getLong(CAPACITY_OFFSET);
+				if (magic != 0) {
+					if (magic != MAGIC || Long.bitCount(capacity) != 1 || capacity > MAX_CAPACITY || channel.size() != HEADER_BYTES + capacity * Long.BYTES) {
+						throw new IOException(String.format("%s is not a position store", path));
+					}
+					return (int)capacity;
+				}
+				// whoever created the file stopped before writing the magic, so no process has used its slots
+				channel.truncate(0);
+			}
+			else if (channel.size() > 0) {
+				throw new IOException(String.format("%s is not a position store", path));
+			}
+			
+			// extend the file to its full size, all slots empty, and then write the header
+			channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long)slots * Long.BYTES - 1);
+			channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, slots), CAPACITY_OFFSET);
+			channel.force(true);
+			channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, MAGIC), MAGIC_OFFSET);
+			channel.force(true);
+			return slots;
+		}
+		finally {
+			lock.release();
+		}
+	}
+}
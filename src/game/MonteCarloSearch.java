@@ -0,0 +1,400 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import state.SearchEngine;
+
+/**
+ * Monte Carlo tree search with UCT (upper confidence bounds applied to trees).
+ * Each playout walks down the tree choosing the child with the best upper confidence bound,
+ * adds one new node, finishes the game with random moves, and credits the result to every node on its path.
+ * The most visited move at the root is played. Only a playout's moves are ever made, on one mutable BitBoard,
+ * so the cost per playout is proportional to the number of empty cells, whatever the board size.
+ * Searches stop after a number of playouts, a time budget, or whichever comes first.
+ * With more than one thread, every thread grows its own tree from the root (root parallelism),
+ * and their visit counts are added up to choose the move.
+ * Trees are kept between searches: when the next position is one already in a tree, a move or two further down,
+ * that subtree becomes the new root, and the playouts spent on it are not lost.
+ */
+public class MonteCarloSearch implements SearchEngine<BitBoard> {
+	
+	public static final int NO_MOVE = -1;
+	
+	/**
+	 * Time budget per move used when none is given.
+	 */
+	public static final long DEFAULT_BUDGET_MILLIS = 1000;
+	
+	/**
+	 * Value of playouts or budgetMillis that sets no limit.
+	 */
+	public static final long UNLIMITED = 0;
+	
+	// how many moves past the previous root to look for the current position when reusing a tree
+	private static final int REUSE_DEPTH = 2;
+	private static final double EXPLORATION = Math.sqrt(2);
+	
+	private final Tree[] trees;
+	private final ForkJoinPool pool;
+	private long budgetMillis;
+	private long playouts;
+	private long lastPlayouts;
+	private int lastRootVisits;
+	
+	/**
+	 * @param parallelism the number of threads, each growing its own tree
+	 * @param budgetMillis wall-clock time allowed per move, in milliseconds, or UNLIMITED
+	 * @param playouts the number of playouts per move, across all threads, or UNLIMITED
+	 * @param seed seed of the random playouts; with one thread and no time budget, searches are repeatable
+	 */
+	public MonteCarloSearch(int parallelism, long budgetMillis, long playouts, long seed) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException(String.format("invalid parallelism %d", parallelism));
+		}
+		trees = new Tree[parallelism];
+		SplittableRandom seeds = new SplittableRandom(seed);
+		for (int i = 0; i < parallelism; ++i) {
+			trees[i] = new Tree(seeds.split());
+		}
+		pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		setLimits(budgetMillis, playouts);
+	}
+	
+	public MonteCarloSearch(long budgetMillis) {
+		this(1, budgetMillis, UNLIMITED, System.nanoTime());
+	}
+	
+	public MonteCarloSearch() {
+		this(DEFAULT_BUDGET_MILLIS);
+	}
+	
+	/**
+	 * Finds the best move for player in state that the search's playouts and time budget allow.
+	 * At least one playout is always run, so some move is returned even with a tiny budget.
+	 * state is not modified.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @return the cell index of the most visited move
+	 */
+	@Override
+	public int search(BitBoard state, int player) {
+		long deadline = budgetMillis == UNLIMITED ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		long playoutsPerTree = playouts == UNLIMITED ? Long.MAX_VALUE : Math.max(1, playouts / trees.length);
+		if (pool == null) {
+			trees[0].search(state, player, playoutsPerTree, deadline);
+		}
+		else {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (Tree tree : trees) {
+				tasks.add(() -> {
+					tree.search(state, player, playoutsPerTree, deadline);
+					return null;
+				});
+			}
+			for (Future<Void> done : pool.invokeAll(tasks)) {
+				try {
+					done.get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("search interrupted", e);
+				}
+				catch (ExecutionException e) {
+					throw new IllegalStateException("search failed", e.getCause());
+				}
+			}
+		}
+		
+		// visits of each root move, added up across trees
+		int[] visits = new int[state.getCells()];
+		lastPlayouts = 0;
+		lastRootVisits = 0;
+		for (Tree tree : trees) {
+			lastPlayouts += tree.playouts;
+			lastRootVisits += tree.root.visits;
+			for (int i = 0; i < tree.root.childCount; ++i) {
+				Node child = tree.root.children[i];
+				visits[child.move] += child.visits;
+			}
+		}
+		int bestMove = NO_MOVE;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			if (bestMove == NO_MOVE || visits[cell] > visits[bestMove]) {
+				bestMove = cell;
+			}
+		}
+		return bestMove;
+	}
+	
+	/**
+	 * @return the number of playouts the last search ran, across all threads
+	 */
+	public long getPlayouts() {
+		return lastPlayouts;
+	}
+	
+	/**
+	 * Playouts stand in for nodes, so that engines can be compared.
+	 * 
+	 * @return the number of playouts the last search ran, across all threads
+	 */
+	@Override
+	public long getNodesVisited() {
+		return lastPlayouts;
+	}
+	
+	@Override
+	public void resetStatistics() {
+		lastPlayouts = 0;
+	}
+	
+	/**
+	 * Returns the number of playouts through the root of the last search,
+	 * including those kept from earlier searches when the tree was reused.
+	 * 
+	 * @return the root's visit count, across all threads
+	 */
+	public int getRootVisits() {
+		return lastRootVisits;
+	}
+	
+	/**
+	 * Forgets every tree, so the next search starts from scratch.
+	 */
+	@Override
+	public void clear() {
+		for (Tree tree : trees) {
+			tree.root = null;
+		}
+	}
+	
+	public int getParallelism() {
+		return trees.length;
+	}
+	
+	public long getBudgetMillis() {
+		return budgetMillis;
+	}
+	
+	public long getPlayoutLimit() {
+		return playouts;
+	}
+	
+	/**
+	 * Sets when searches stop: after budgetMillis, or playouts, whichever comes first.
+	 * 
+	 * @param budgetMillis wall-clock time allowed per move, in milliseconds, or UNLIMITED
+	 * @param playouts the number of playouts per move, across all threads, or UNLIMITED
+	 */
+	public void setLimits(long budgetMillis, long playouts) {
+		if (budgetMillis < 0 || playouts < 0 || (budgetMillis == UNLIMITED && playouts == UNLIMITED)) {
+			throw new IllegalArgumentException(String.format("invalid limits %dms, %d playouts", budgetMillis, playouts));
+		}
+		this.budgetMillis = budgetMillis;
+		this.playouts = playouts;
+	}
+	
+	/**
+	 * Stops the search's worker threads, if it has any.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * A node of the search tree: a position, and the results of the playouts that went through it.
+	 */
+	private static final class Node {
+		private final int move;
+		// the player who made move, and from whose perspective wins are counted
+		private final int player;
+		private final long hash;
+		private Node parent;
+		private Node[] children;
+		private int childCount;
+		private int[] untried;
+		private int untriedCount;
+		private int visits;
+		// 1 per playout won by player, 1/2 per draw
+		private double wins;
+		
+		private Node(Node parent, int move, int player, BitBoard state) {
+			this.parent = parent;
+			this.move = move;
+			this.player = player;
+			hash = state.getHash();
+			if (!state.terminal()) {
+				untried = new int[state.getCells() - state.size()];
+				untriedCount = state.getEmptyCells(untried);
+				children = new Node[untriedCount];
+			}
+		}
+		
+		/**
+		 * @return the child with the highest upper confidence bound
+		 */
+		private Node select() {
+			double logVisits = Math.log(visits);
+			Node best = null;
+			double bestBound = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < childCount; ++i) {
+				Node child = children[i];
+				double bound = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+				if (bound > bestBound) {
+					best = child;
+					bestBound = bound;
+				}
+			}
+			return best;
+		}
+	}
+	
+	/**
+	 * One thread's search tree, and the board and random numbers it plays out with.
+	 */
+	private static final class Tree {
+		private final SplittableRandom random;
+		private Node root;
+		// the number of marks and shape of the root's position
+		private int rootSize;
+		private long rootShape;
+		private BitBoard board;
+		private int[] path;
+		private int[] empty;
+		private long playouts;
+		
+		private Tree(SplittableRandom random) {
+			this.random = random;
+		}
+		
+		private void search(BitBoard state, int player, long maxPlayouts, long deadline) {
+			board = new BitBoard(state);
+			path = new int[state.getCells()];
+			empty = new int[state.getCells()];
+			root = reuse(state, player);
+			if (root == null) {
+				root = new Node(null, NO_MOVE, BitBoard.getOtherPlayer(player), board);
+			}
+			rootSize = state.size();
+			rootShape = Zobrist.shapeKey(state.getRows(), state.getCols(), state.getWinLength());
+			
+			playouts = 0;
+			do {
+				playout();
+				++playouts;
+			} while (playouts < maxPlayouts && System.nanoTime() < deadline);
+			board = null;
+		}
+		
+		/**
+		 * Looks for state, with player to move, among the descendants of the previous root.
+		 * 
+		 * @return the node of state, detached from its parent, or null if the tree has no such node
+		 */
+		private Node reuse(BitBoard state, int player) {
+			int depth = state.size() - rootSize;
+			if (root == null || depth < 0 || depth > REUSE_DEPTH
+					|| rootShape != Zobrist.shapeKey(state.getRows(), state.getCols(), state.getWinLength())) {
+				return null;
+			}
+			List<Node> level = new ArrayList<>();
+			level.add(root);
+			for (int i = 0; i < depth; ++i) {
+				List<Node> next = new ArrayList<>();
+				for (Node node : level) {
+					for (int c = 0; c < node.childCount; ++c) {
+						next.add(node.children[c]);
+					}
+				}
+				level = next;
+			}
+			for (Node node : level) {
+				// hashes do not include the side to move, so check that separately
+				if (node.hash == state.getHash() && node.player != player) {
+					node.parent = null;
+					return node;
+				}
+			}
+			return null;
+		}
+		
+		/**
+		 * Runs one playout from the root: selection, expansion, simulation and backpropagation.
+		 * board is back at the root's position afterwards.
+		 */
+		private void playout() {
+			Node node = root;
+			int depth = 0;
+			while (node.untriedCount == 0 && node.childCount > 0) {
+				node = node.select();
+				board.place(node.move, node.player);
+				path[depth++] = node.move;
+			}
+			
+			if (node.untriedCount > 0) {
+				int i = random.nextInt(node.untriedCount);
+				int move = node.untried[i];
+				node.untried[i] = node.untried[--node.untriedCount];
+				int player = BitBoard.getOtherPlayer(node.player);
+				board.place(move, player);
+				path[depth++] = move;
+				Node child = new Node(node, move, player, board);
+				node.children[node.childCount++] = child;
+				if (node.untriedCount == 0) {
+					node.untried = null;
+				}
+				node = child;
+			}
+			
+			int winner = simulate(BitBoard.getOtherPlayer(node.player));
+			for (; node != null; node = node.parent) {
+				++node.visits;
+				if (winner == node.player) {
+					node.wins += 1;
+				}
+				else if (winner == BitBoard.EMPTY) {
+					node.wins += 0.5;
+				}
+			}
+			while (depth > 0) {
+				board.undo(path[--depth]);
+			}
+		}
+		
+		/**
+		 * Plays random moves from the current position until the game ends, then takes them all back.
+		 * 
+		 * @param player the player to move
+		 * @return the winner, or BitBoard.EMPTY for a draw
+		 */
+		private int simulate(int player) {
+			int count = board.getEmptyCells(empty);
+			int played = 0;
+			while (!board.terminal()) {
+				int i = random.nextInt(count - played);
+				int move = empty[i];
+				empty[i] = empty[count - played - 1];
+				// keep the played moves at the end, to take them back
+				empty[count - played - 1] = move;
+				++played;
+				board.place(move, player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+			int winner = board.winner();
+			for (int i = 0; i < played; ++i) {
+				board.undo(empty[count - 1 - i]);
+			}
+			return winner;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package game;
+
+/**
+ * Heuristic that decides the order in which a search tries moves.
+ * Moves with a higher score are searched first;
+ * a good ordering lets alpha-beta pruning cut off more of the tree.
+ */
+public interface MoveOrdering {
+	
+	/**
+	 * Scores move for ordering purposes. Higher scores are searched first.
+	 * 
+	 * @param state the position the move will be played in
+	 * @param move the cell index of the move
+	 * @param ply distance from the root of the search
+	 * @return the ordering score of move
+	 */
+	public int score(BitBoard state, int move, int ply);
+	
+	/**
+	 * Notifies the ordering that move caused a cutoff at ply.
+	 * 
+	 * @param move the cell index of the move
+	 * @param ply distance from the root of the search
+	 * @param depth remaining depth of the subtree that was cut off
+	 */
+	public default void cutoff(int move, int ply, int depth) {
+	}
+	
+	/**
+	 * Clears any state learned during previous searches.
+	 */
+	public default void reset() {
+	}
+}
@@ -0,0 +1,61 @@
+package game;
+
+/**
+ * Static helpers for moves encoded as a single int: the cell index, row * cols + col,
+ * which is how every search, table and record in this package passes moves around.
+ * Pairs are only created at the edges, for the Agent interface.
+ */
+public final class Moves {
+	public static final int NONE = -1;
+	
+	/**
+	 * @param row
+	 * @param col
+	 * @param cols the number of columns on the board
+	 * @return the move to (row, col)
+	 */
+	public static int of(int row, int col, int cols) {
+		return row * cols + col;
+	}
+	
+	/**
+	 * @param move a (row, column) pair
+	 * @param cols the number of columns on the board
+	 * @return the move as a cell index
+	 */
+	public static int of(Pair move, int cols) {
+		return of(move.getFirst(), move.getSecond(), cols);
+	}
+	
+	public static int row(int move, int cols) {
+		return move / cols;
+	}
+	
+	public static int col(int move, int cols) {
+		return move % cols;
+	}
+	
+	/**
+	 * @param move a cell index; not NONE
+	 * @param cols the number of columns on the board
+	 * @return the move as a (row, column) pair
+	 */
+	public static Pair toPair(int move, int cols) {
+		if (move < 0) {
+			throw new IllegalArgumentException(String.format("invalid move %d", move));
+		}
+		return new Pair(row(move, cols), col(move, cols));
+	}
+	
+	/**
+	 * @param move a cell index, or NONE
+	 * @param cols the number of columns on the board
+	 * @return the move as "(row, col)", or "none"
+	 */
+	public static String toString(int move, int cols) {
+		return move == NONE ? "none" : String.format("(%d, %d)", row(move, cols), col(move, cols));
+	}
+	
+	private Moves() {
+	}
+}
@@ -0,0 +1,34 @@
+package game;
+
+/**
+ * Evaluates a position by its open lines: lines that only one player has marked, and so can still be completed by them.
+ * Each open line is worth more the more marks it already holds;
+ * the player's open lines count for them, and the opponent's against.
+ */
+public class OpenLinesEvaluator implements Evaluator {
+	
+	// each extra mark on an open line is worth this many times less-filled lines
+	private static final int MARK_SHIFT = 3;
+	private static final int MAX_SHIFT = 20;
+	
+	@Override
+	public int evaluate(BitBoard state, int player) {
+		int otherPlayer = BitBoard.getOtherPlayer(player);
+		long score = 0;
+		for (int line = 0; line < state.getLineCount(); ++line) {
+			int mine = state.getMarks(line, player);
+			int theirs = state.getMarks(line, otherPlayer);
+			if (theirs == 0 && mine > 0) {
+				score += weight(mine);
+			}
+			else if (mine == 0 && theirs > 0) {
+				score -= weight(theirs);
+			}
+		}
+		return (int)Math.max(-WIN_SCORE + 1, Math.min(WIN_SCORE - 1, score));
+	}
+	
+	private static int weight(int marks) {
+		return 1 << Math.min(MARK_SHIFT * (marks - 1), MAX_SHIFT);
+	}
+}
@@ -1,12 +1,16 @@
 package game;
 
+/**
+ * Immutable (row, column) pair, the form moves take at the Agent interface.
+ * Inside the searches, moves are cell indices; Moves converts between the two.
+ */
 public class Pair {
-	private int first;
-	private int second;
+	private final int first;
+	private final int second;
 	
 	public Pair(int first, int second) {
-		setFirst(first);
-		setSecond(second);
+		this.first = first;
+		this.second = second;
 	}
 	
 	@Override
@@ -18,29 +22,21 @@ public class Pair {
 	public boolean equals(Object other) {
 		if (other instanceof Pair) {
 			Pair otherPair = (Pair)other;
-			return otherPair.getFirst() == getFirst() && otherPair.getSecond() == getFirst();
+			return otherPair.getFirst() == getFirst() && otherPair.getSecond() == getSecond();
 		}
 		return false;
 	}
 	
 	@Override
 	public int hashCode() {
-		return String.format("%d%d", getFirst(), getSecond()).hashCode();
+		return 31 * getFirst() + getSecond();
 	}
 
 	public int getFirst() {
 		return first;
 	}
 
-	public void setFirst(int first) {
-		this.first = first;
-	}
-
 	public int getSecond() {
 		return second;
 	}
-
-	public void setSecond(int second) {
-		this.second = second;
-	}
 }
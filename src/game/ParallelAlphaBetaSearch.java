@@ -0,0 +1,310 @@
+package game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import state.SearchEngine;
+
+/**
+ * Alpha-beta search split across a ForkJoinPool using Young Brothers Wait:
+ * at every node shallower than the sequential cutoff, the first (eldest) move is searched alone to establish a bound,
+ * and then its younger brothers are searched in parallel with that bound.
+ * Below the cutoff, each worker finishes the subtree with its own sequential AlphaBetaSearch and transposition table.
+ * The root is split the same way, and returns the same move as the sequential AlphaBetaSearch.
+ * Moves are listed into per-worker buffers only once the eldest brother is done, and copied into the brothers' boards
+ * before the worker can run another task, so split points do not allocate move lists.
+ * Tasks hand their results back in primitive fields, the root's packed by Scores, so joining boxes nothing.
+ */
+public class ParallelAlphaBetaSearch implements SearchEngine<BitBoard> {
+	
+	private final ForkJoinPool pool;
+	private final int sequentialCutoff;
+	private final int tableSize;
+	private final ThreadLocal<AlphaBetaSearch> searches;
+	private final ThreadLocal<MoveBuffer> moveBuffers;
+	// every worker's search, so clear can reach them from outside the pool
+	private final Queue<AlphaBetaSearch> workerSearches;
+	private final LongAdder nodesVisited;
+	private int bestScore;
+	
+	/**
+	 * @param parallelism the number of worker threads
+	 * @param sequentialCutoff the ply below which subtrees are no longer split
+	 * @param tableSize the number of transposition table entries per worker
+	 */
+	public ParallelAlphaBetaSearch(int parallelism, int sequentialCutoff, int tableSize) {
+		pool = new ForkJoinPool(parallelism);
+		this.sequentialCutoff = sequentialCutoff;
+		this.tableSize = tableSize;
+		workerSearches = new ConcurrentLinkedQueue<>();
+		searches = ThreadLocal.withInitial(() -> {
+			AlphaBetaSearch search = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(this.tableSize), true);
+			workerSearches.add(search);
+			return search;
+		});
+		moveBuffers = ThreadLocal.withInitial(MoveBuffer::new);
+		nodesVisited = new LongAdder();
+	}
+	
+	public ParallelAlphaBetaSearch(int parallelism) {
+		this(parallelism, 2, Zobrist.DEFAULT_TABLE_SIZE);
+	}
+	
+	public ParallelAlphaBetaSearch() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Finds the best move for player in state; ties are broken in favor of the lowest cell index.
+	 * state is not modified.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @return the cell index of the best move
+	 */
+	@Override
+	public int search(BitBoard state, int player) {
+		RootTask root = new RootTask(new BitBoard(state), player);
+		pool.invoke(root);
+		bestScore = Scores.score(root.result);
+		return Scores.move(root.result);
+	}
+	
+	/**
+	 * Returns the score of the move chosen by the last search, from the searching player's perspective.
+	 * 
+	 * @return Evaluator.WIN_SCORE for a forced win, 0 for a draw, -Evaluator.WIN_SCORE for a forced loss
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+	
+	/**
+	 * Returns the number of positions visited, across all workers, since the last call to resetStatistics.
+	 * 
+	 * @return the node-visit count
+	 */
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited.sum();
+	}
+	
+	@Override
+	public void resetStatistics() {
+		nodesVisited.reset();
+	}
+	
+	/**
+	 * Clears every worker's transposition table and move ordering.
+	 */
+	@Override
+	public void clear() {
+		for (AlphaBetaSearch search : workerSearches) {
+			search.clear();
+		}
+	}
+	
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+	
+	public int getSequentialCutoff() {
+		return sequentialCutoff;
+	}
+	
+	/**
+	 * Stops the worker threads. The search cannot be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/**
+	 * Returns the move generateMoves would list first: the empty cell through the most lines, the lowest on ties.
+	 * 
+	 * @param state the position to find the eldest move of
+	 * @return the cell index of the move, or -1 if state is full
+	 */
+	private static int eldestMove(BitBoard state) {
+		int eldest = -1;
+		int eldestWeight = -1;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			int weight = state.countLinesThrough(cell);
+			if (weight > eldestWeight) {
+				eldest = cell;
+				eldestWeight = weight;
+			}
+		}
+		return eldest;
+	}
+	
+	/**
+	 * Lists the empty cells of state into the calling worker's buffer, center and corners first, ties in cell order.
+	 * The buffer is overwritten by the worker's next call, so it must be read before the worker runs another task.
+	 * 
+	 * @param state the position to generate moves for
+	 * @return the buffer holding the ordered moves; its first state.getCells() - state.size() entries are valid
+	 */
+	private int[] generateMoves(BitBoard state) {
+		MoveBuffer buffer = moveBuffers.get();
+		buffer.ensureCapacity(state.getCells());
+		int[] moves = buffer.moves;
+		int[] weights = buffer.weights;
+		int count = 0;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			int weight = state.countLinesThrough(cell);
+			int i = count++;
+			while (i > 0 && weights[i - 1] < weight) {
+				moves[i] = moves[i - 1];
+				weights[i] = weights[i - 1];
+				--i;
+			}
+			moves[i] = cell;
+			weights[i] = weight;
+		}
+		return moves;
+	}
+	
+	/**
+	 * Creates a task for each move after the eldest, each on its own copy of state.
+	 * 
+	 * @return the younger brothers, in move order
+	 */
+	private NodeTask[] youngerBrothers(BitBoard state, int player, int alpha, int beta, int ply) {
+		int[] moves = generateMoves(state);
+		int otherPlayer = BitBoard.getOtherPlayer(player);
+		NodeTask[] brothers = new NodeTask[state.getCells() - state.size() - 1];
+		for (int i = 0; i < brothers.length; ++i) {
+			BitBoard child = new BitBoard(state);
+			child.place(moves[i + 1], player);
+			brothers[i] = new NodeTask(child, otherPlayer, alpha, beta, ply, moves[i + 1]);
+		}
+		return brothers;
+	}
+	
+	/**
+	 * A worker's scratch space for generateMoves, grown to the largest board it has searched.
+	 */
+	private static class MoveBuffer {
+		private int[] moves = new int[0];
+		private int[] weights = new int[0];
+		
+		void ensureCapacity(int cells) {
+			if (moves.length < cells) {
+				moves = new int[cells];
+				weights = new int[cells];
+			}
+		}
+	}
+	
+	/**
+	 * Searches the root: the eldest move exactly, then the rest in parallel,
+	 * one below its score so that equal scores are exact and ties can go to the lowest cell.
+	 */
+	private class RootTask extends RecursiveAction {
+		private static final long serialVersionUID = 42L;		// arbitrary; silence warning
+		
+		private final BitBoard state;
+		private final int player;
+		// the best score, the depth searched and the best move, packed by Scores
+		private long result;
+		
+		RootTask(BitBoard state, int player) {
+			this.state = state;
+			this.player = player;
+		}
+
+		@Override
+		protected void compute() {
+			nodesVisited.increment();
+			int bestMove = eldestMove(state);
+			if (bestMove == -1) {
+				result = Scores.pack(0, 0, Moves.NONE);
+				return;
+			}
+			
+			BitBoard eldest = new BitBoard(state);
+			eldest.place(bestMove, player);
+			int best = -new NodeTask(eldest, BitBoard.getOtherPlayer(player), -Integer.MAX_VALUE, Integer.MAX_VALUE, 1, bestMove).search();
+			
+			NodeTask[] brothers = youngerBrothers(state, player, -Integer.MAX_VALUE, 1 - best, 1);
+			invokeAll(brothers);
+			
+			for (NodeTask brother : brothers) {
+				int score = -brother.score;
+				if (score > best || (score == best && brother.move < bestMove)) {
+					best = score;
+					bestMove = brother.move;
+				}
+			}
+			
+			result = Scores.pack(best, state.getCells() - state.size(), bestMove);
+		}
+	}
+	
+	/**
+	 * Fail-soft negamax alpha-beta over one subtree; owns its copy of the board.
+	 */
+	private class NodeTask extends RecursiveAction {
+		private static final long serialVersionUID = 42L;		// arbitrary; silence warning
+		
+		private final BitBoard state;
+		private final int player;
+		private final int alpha;
+		private final int beta;
+		private final int ply;
+		private final int move;
+		private int score;
+		
+		/**
+		 * @param move the move that led to state, used by the root to break ties
+		 */
+		NodeTask(BitBoard state, int player, int alpha, int beta, int ply, int move) {
+			this.state = state;
+			this.player = player;
+			this.alpha = alpha;
+			this.beta = beta;
+			this.ply = ply;
+			this.move = move;
+		}
+
+		@Override
+		protected void compute() {
+			score = search();
+		}
+		
+		/**
+		 * @return the fail-soft score of this subtree, from the perspective of the player to move
+		 */
+		private int search() {
+			if (ply >= sequentialCutoff || state.terminal()) {
+				AlphaBetaSearch search = searches.get();
+				long before = search.getNodesVisited();
+				int score = search.evaluate(state, player, alpha, beta);
+				nodesVisited.add(search.getNodesVisited() - before);
+				return score;
+			}
+			
+			nodesVisited.increment();
+			int move = eldestMove(state);
+			BitBoard eldest = new BitBoard(state);
+			eldest.place(move, player);
+			int best = -new NodeTask(eldest, BitBoard.getOtherPlayer(player), -beta, -alpha, ply + 1, move).search();
+			if (best >= beta || state.getCells() - state.size() == 1) {
+				return best;
+			}
+			
+			int bound = Math.max(alpha, best);
+			NodeTask[] brothers = youngerBrothers(state, player, -beta, -bound, ply + 1);
+			invokeAll(brothers);
+			
+			for (NodeTask brother : brothers) {
+				best = Math.max(best, -brother.score);
+			}
+			return best;
+		}
+	}
+}
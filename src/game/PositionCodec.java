@@ -0,0 +1,131 @@
+package game;
+
+/**
+ * Dense encoding of a position as 2 bits per cell, 32 cells to a long:
+ * cell i is held in bits 2 * (i % 32) and up of word i / 32, as EMPTY (0), PLAYER1 (1) or PLAYER2 (2).
+ * Boards of more than 32 cells span several words, so any BitBoard can be encoded.
+ * Encoded positions can be read and built cell by cell without a BitBoard,
+ * which lets pipelines replay and compare positions without allocating boards.
+ */
+public final class PositionCodec {
+	public static final int CELLS_PER_WORD = Long.SIZE / 2;
+	
+	private static final long LOW_BITS = 0x5555555555555555L;
+	
+	/**
+	 * @param cells the number of cells on the board
+	 * @return the number of words an encoded position of that board takes
+	 */
+	public static int wordsFor(int cells) {
+		return (cells + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+	}
+	
+	/**
+	 * @param state the position to encode
+	 * @return a new array holding the encoded position
+	 */
+	public static long[] encode(BitBoard state) {
+		long[] words = new long[wordsFor(state.getCells())];
+		encode(state, words, 0);
+		return words;
+	}
+	
+	/**
+	 * Encodes state into words, starting at offset.
+	 * 
+	 * @param state the position to encode
+	 * @param words the array to write to; wordsFor(state.getCells()) words from offset are overwritten
+	 * @param offset the index of the first word
+	 */
+	public static void encode(BitBoard state, long[] words, int offset) {
+		int count = wordsFor(state.getCells());
+		for (int i = 0; i < count; ++i) {
+			// each 64-cell BitBoard word fills two codec words
+			int shift = (i & 1) * CELLS_PER_WORD;
+			int player1 = (int)(state.getMask(BitBoard.PLAYER1, i >>> 1) >>> shift);
+			int player2 = (int)(state.getMask(BitBoard.PLAYER2, i >>> 1) >>> shift);
+			words[offset + i] = spread(player1) | spread(player2) << 1;
+		}
+	}
+	
+	/**
+	 * Rebuilds an encoded position.
+	 * 
+	 * @param words the encoded position
+	 * @param offset the index of its first word
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @return a new BitBoard holding the position
+	 */
+	public static BitBoard decode(long[] words, int offset, int rows, int cols, int winLength) {
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		int count = wordsFor(state.getCells());
+		for (int i = 0; i < count; ++i) {
+			long word = words[offset + i];
+			for (int player = BitBoard.PLAYER1; player <= BitBoard.PLAYER2; ++player) {
+				long marks = (word >>> (player - 1)) & LOW_BITS;
+				while (marks != 0) {
+					state.place(i * CELLS_PER_WORD + Long.numberOfTrailingZeros(marks) / 2, player);
+					marks &= marks - 1;
+				}
+			}
+		}
+		return state;
+	}
+	
+	/**
+	 * @param words the encoded position
+	 * @param offset the index of its first word
+	 * @param cell the cell index
+	 * @return the player in cell, or EMPTY
+	 */
+	public static int get(long[] words, int offset, int cell) {
+		return (int)(words[offset + cell / CELLS_PER_WORD] >>> (2 * (cell % CELLS_PER_WORD))) & 3;
+	}
+	
+	/**
+	 * Puts player's mark in cell, replacing whatever was there.
+	 * 
+	 * @param words the encoded position
+	 * @param offset the index of its first word
+	 * @param cell the cell index
+	 * @param player the player, or EMPTY to clear the cell
+	 */
+	public static void set(long[] words, int offset, int cell, int player) {
+		int index = offset + cell / CELLS_PER_WORD;
+		int shift = 2 * (cell % CELLS_PER_WORD);
+		words[index] = (words[index] & ~(3L << shift)) | (long)player << shift;
+	}
+	
+	/**
+	 * @param words the encoded position
+	 * @param offset the index of its first word
+	 * @param cells the number of cells on the board
+	 * @param player the player whose marks to count
+	 * @return the number of cells holding player's mark
+	 */
+	public static int count(long[] words, int offset, int cells, int player) {
+		int count = 0;
+		for (int i = 0; i < wordsFor(cells); ++i) {
+			count += Long.bitCount((words[offset + i] >>> (player - 1)) & LOW_BITS);
+		}
+		return count;
+	}
+	
+	/**
+	 * Spreads the 32 bits of bits to the even bits of a long: bit i moves to bit 2 * i.
+	 */
+	private static long spread(int bits) {
+		long spread = bits & 0xFFFFFFFFL;
+		spread = (spread | spread << 16) & 0x0000FFFF0000FFFFL;
+		spread = (spread | spread << 8) & 0x00FF00FF00FF00FFL;
+		spread = (spread | spread << 4) & 0x0F0F0F0F0F0F0F0FL;
+		spread = (spread | spread << 2) & 0x3333333333333333L;
+		spread = (spread | spread << 1) & LOW_BITS;
+		return spread;
+	}
+	
+	private PositionCodec() {
+	}
+}
@@ -0,0 +1,52 @@
+package game;
+
+/**
+ * Cache of the best move found for a position, meant to be shared by many searches.
+ * Unlike a TranspositionTable, implementations are thread-safe,
+ * and only remember the final answer for a position, not the bounds found on the way.
+ * Being a cache, a store may forget entries to make room for new ones.
+ */
+public interface PositionStore {
+	public static final int NO_MOVE = -1;
+	
+	/**
+	 * Returns the key a position is stored under:
+	 * its Zobrist hash, combined with whose turn it is and the board's dimensions.
+	 * 
+	 * @param state the position
+	 * @param player the player whose turn it is in state
+	 * @return the 64-bit key of the position
+	 */
+	public static long key(BitBoard state, int player) {
+		return state.getHash() ^ Zobrist.sideKey(player) ^ Zobrist.shapeKey(state.getRows(), state.getCols(), state.getWinLength());
+	}
+	
+	/**
+	 * @param key the key of the position, from key(state, player)
+	 * @return the best move stored for the position, or NO_MOVE
+	 */
+	public int get(long key);
+	
+	/**
+	 * Records the best move for a position.
+	 * 
+	 * @param key the key of the position, from key(state, player)
+	 * @param move the cell index of the best move
+	 */
+	public void put(long key, int move);
+	
+	/**
+	 * @return the number of entries the store can hold
+	 */
+	public int getCapacity();
+	
+	/**
+	 * @return the number of lookups that found a move
+	 */
+	public long getHits();
+	
+	/**
+	 * @return the number of lookups that found nothing
+	 */
+	public long getMisses();
+}
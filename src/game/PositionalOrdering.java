@@ -0,0 +1,32 @@
+package game;
+
+/**
+ * Static center/corner ordering: a cell is worth the number of winning lines through it.
+ * On a 3x3 board the center (4 lines) is tried first, then the corners (3), then the edges (2).
+ */
+public class PositionalOrdering implements MoveOrdering {
+	
+	private int[] weights;
+	private int rows;
+	private int cols;
+	
+	public PositionalOrdering() {
+		weights = new int[0];
+	}
+
+	/**
+	 * @see MoveOrdering#score(BitBoard, int, int)
+	 */
+	@Override
+	public int score(BitBoard state, int move, int ply) {
+		if (state.getRows() != rows || state.getCols() != cols) {
+			rows = state.getRows();
+			cols = state.getCols();
+			weights = new int[state.getCells()];
+			for (int cell = 0; cell < weights.length; ++cell) {
+				weights[cell] = state.countLinesThrough(cell);
+			}
+		}
+		return weights[move];
+	}
+}
@@ -0,0 +1,101 @@
+package game;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free PositionStore over a power-of-two array of slots, wherever the slots live.
+ * Each entry is packed into one long, so it is read and written atomically without locks:
+ * the high bits hold the position's key, and the low MOVE_BITS hold the move plus one, which keeps a used entry non-zero.
+ * The stored bits check the high 64 - MOVE_BITS bits of the key, and the slot, chosen by the low bits, most of the rest.
+ * Empty slots are claimed with compare-and-set, probing a few slots past the first;
+ * when all of them are taken, the first is overwritten.
+ * Subclasses supply the slots' storage through getSlot, setSlot and compareAndSetSlot, each with volatile semantics.
+ */
+abstract class ProbingPositionStore implements PositionStore {
+	
+	private static final int MOVE_BITS = 16;
+	private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+	private static final int PROBES = 4;
+	
+	private final int mask;
+	private final LongAdder hits;
+	private final LongAdder misses;
+	
+	/**
+	 * @param slots the number of slots; a power of two
+	 */
+	protected ProbingPositionStore(int slots) {
+		mask = slots - 1;
+		hits = new LongAdder();
+		misses = new LongAdder();
+	}
+	
+	@Override
+	public int get(long key) {
+		long tag = key & ~MOVE_MASK;
+		for (int i = 0; i < PROBES; ++i) {
+			long entry = getSlot(((int)key + i) & mask);
+			if (entry == 0) {
+				break;
+			}
+			if ((entry & ~MOVE_MASK) == tag) {
+				hits.increment();
+				return (int)(entry & MOVE_MASK) - 1;
+			}
+		}
+		misses.increment();
+		return NO_MOVE;
+	}
+	
+	@Override
+	public void put(long key, int move) {
+		long tag = key & ~MOVE_MASK;
+		long packed = tag | (move + 1);
+		for (int i = 0; i < PROBES; ++i) {
+			int slot = ((int)key + i) & mask;
+			long entry = getSlot(slot);
+			if (entry == 0) {
+				if (compareAndSetSlot(slot, 0, packed)) {
+					return;
+				}
+				// another thread, or process, claimed the slot first; it may have stored this same position
+				entry = getSlot(slot);
+			}
+			if ((entry & ~MOVE_MASK) == tag) {
+				setSlot(slot, packed);
+				return;
+			}
+		}
+		setSlot((int)key & mask, packed);
+	}
+	
+	@Override
+	public int getCapacity() {
+		return mask + 1;
+	}
+	
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @param slot index of the slot, below getCapacity()
+	 * @return the entry in slot, or 0 if it is empty
+	 */
+	protected abstract long getSlot(int slot);
+	
+	protected abstract void setSlot(int slot, long entry);
+	
+	/**
+	 * Atomically replaces the entry in slot if it still holds expected.
+	 * 
+	 * @return true if the entry was replaced
+	 */
+	protected abstract boolean compareAndSetSlot(int slot, long expected, long entry);
+}
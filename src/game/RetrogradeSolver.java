@@ -0,0 +1,392 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves every position of a board by backward induction, instead of searching forward from each one.
+ * Positions are indexed by their base-3 encoding (cell i contributes player * 3^i, as in BatchEvaluator),
+ * and each is solved into one byte of a table covering every index: its game-theoretic value and its distance to the end.
+ * X is assumed to move first, so the side to move of a position follows from its marks.
+ * 
+ * Positions are solved a level at a time, from the full board back to the empty one, where a level is every position
+ * with the same number of marks. Every move adds a mark, so a position's successors are all on the next level,
+ * solved in the pass before: a position is solved by reading its successors' entries, with no search and no recursion.
+ * Within a level the positions are independent, so each pass is split across worker threads,
+ * and only the legal positions of the level are visited, by placing X's and then O's on the empty cells.
+ * 
+ * Distances count the moves to the end of the game when the winner wins as fast as it can,
+ * and the loser holds out as long as it can; a drawn game ends when the board is full.
+ */
+public class RetrogradeSolver {
+	public static final int NO_MOVE = -1;
+	
+	/**
+	 * The largest board whose table fits in one array.
+	 */
+	public static final int MAX_CELLS = 19;
+	
+	// entry byte: the low 5 bits hold the distance to the end, the next 2 bits the value, as in a Tablebase
+	private static final int DISTANCE_MASK = 0x1F;
+	private static final int VALUE_SHIFT = 5;
+	private static final int UNSOLVED = 0;
+	private static final int LOSS = 1;
+	private static final int DRAW = 2;
+	private static final int WIN = 3;
+	
+	// the number of X placements each worker claims at a time
+	private static final int CHUNK_SIZE = 16;
+	
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int cells;
+	private final int parallelism;
+	private final int[] powers;
+	private final int[] lineMasks;
+	private final byte[] entries;
+	private final long[] counts;
+	private boolean solved;
+	
+	/**
+	 * Allocates the table for a rows x cols board; solve() fills it.
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @param parallelism the number of worker threads
+	 */
+	public RetrogradeSolver(int rows, int cols, int winLength, int parallelism) {
+		if (rows <= 0 || cols <= 0 || rows * cols > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("%dx%d is too large to solve", rows, cols));
+		}
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException(String.format("invalid parallelism %d", parallelism));
+		}
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		this.parallelism = parallelism;
+		cells = rows * cols;
+		powers = new int[cells + 1];
+		powers[0] = 1;
+		for (int i = 1; i <= cells; ++i) {
+			powers[i] = 3 * powers[i - 1];
+		}
+		
+		// the lines are BitBoard's, as cell masks
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		lineMasks = new int[state.getLineCount()];
+		for (int cell = 0; cell < cells; ++cell) {
+			for (int line : state.getLinesThrough(cell)) {
+				lineMasks[line] |= 1 << cell;
+			}
+		}
+		entries = new byte[powers[cells]];
+		counts = new long[WIN + 1];
+	}
+	
+	public RetrogradeSolver(int rows, int cols, int winLength) {
+		this(rows, cols, winLength, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Solves every legal position, one level per pass, from the full board back to the empty one.
+	 * 
+	 * @return this solver
+	 */
+	public synchronized RetrogradeSolver solve() {
+		if (solved) {
+			return this;
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for (int level = cells; level >= 0; --level) {
+				solveLevel(pool, level);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		solved = true;
+		return this;
+	}
+	
+	/**
+	 * Solves every position with level marks, split across the pool by where the X's are.
+	 */
+	private void solveLevel(ForkJoinPool pool, int level) {
+		int[] placements = combinations(cells, (level + 1) / 2);
+		int os = level / 2;
+		AtomicInteger next = new AtomicInteger();
+		List<Callable<long[]>> workers = new ArrayList<>();
+		for (int w = 0; w < parallelism; ++w) {
+			workers.add(() -> {
+				long[] solvedCounts = new long[WIN + 1];
+				for (int start = next.getAndAdd(CHUNK_SIZE); start < placements.length; start = next.getAndAdd(CHUNK_SIZE)) {
+					for (int i = start; i < Math.min(start + CHUNK_SIZE, placements.length); ++i) {
+						int xs = placements[i];
+						placeOs(xs, ternary(xs), ((1 << cells) - 1) & ~xs, 0, 0, os, level, solvedCounts);
+					}
+				}
+				return solvedCounts;
+			});
+		}
+		
+		try {
+			for (Future<long[]> worker : pool.invokeAll(workers)) {
+				long[] solvedCounts = worker.get();
+				for (int value = 0; value <= WIN; ++value) {
+					counts[value] += solvedCounts[value];
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("solve was interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("solve failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * Places the remaining O's on the free cells in every way, in increasing cell order, and solves each position.
+	 * 
+	 * @param xs the cells holding X
+	 * @param index base-3 index of the marks placed so far
+	 * @param free the cells that may still take an O
+	 * @param os the cells holding O so far
+	 * @param placed the number of O's placed
+	 * @param total the number of O's to place
+	 */
+	private void placeOs(int xs, int index, int free, int os, int placed, int total, int level, long[] solvedCounts) {
+		if (placed == total) {
+			int value = solvePosition(xs, os, index, level);
+			++solvedCounts[value];
+			return;
+		}
+		// leave enough free cells for the O's still to come
+		for (int rest = free; Integer.bitCount(rest) >= total - placed; rest &= rest - 1) {
+			int cell = Integer.numberOfTrailingZeros(rest);
+			placeOs(xs, index + BitBoard.PLAYER2 * powers[cell], rest & (rest - 1), os | 1 << cell, placed + 1, total, level, solvedCounts);
+		}
+	}
+	
+	/**
+	 * Solves one position from its successors' entries.
+	 * 
+	 * @return the value stored
+	 */
+	private int solvePosition(int xs, int os, int index, int level) {
+		int player = level % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+		int toMove = player == BitBoard.PLAYER1 ? xs : os;
+		int moved = player == BitBoard.PLAYER1 ? os : xs;
+		if (hasLine(toMove)) {
+			// the game ended before this position could be reached
+			return UNSOLVED;
+		}
+		if (hasLine(moved)) {
+			entries[index] = (byte)(LOSS << VALUE_SHIFT);
+			return LOSS;
+		}
+		int empty = ((1 << cells) - 1) & ~(xs | os);
+		if (empty == 0) {
+			entries[index] = (byte)(DRAW << VALUE_SHIFT);
+			return DRAW;
+		}
+		
+		// the best successor is the one worst for the opponent: a loss, reached fastest, or failing that the longest win
+		int best = UNSOLVED;
+		int distance = 0;
+		for (int rest = empty; rest != 0; rest &= rest - 1) {
+			int entry = entries[index + player * powers[Integer.numberOfTrailingZeros(rest)]];
+			int value = WIN + LOSS - (entry >>> VALUE_SHIFT);
+			int after = (entry & DISTANCE_MASK) + 1;
+			if (value > best || (value == best && (value == WIN ? after < distance : after > distance))) {
+				best = value;
+				distance = after;
+			}
+		}
+		entries[index] = (byte)(best << VALUE_SHIFT | distance);
+		return best;
+	}
+	
+	private boolean hasLine(int marks) {
+		for (int line : lineMasks) {
+			if ((marks & line) == line) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return sum of 3^cell over the cells of mask
+	 */
+	private int ternary(int mask) {
+		int index = 0;
+		for (int rest = mask; rest != 0; rest &= rest - 1) {
+			index += powers[Integer.numberOfTrailingZeros(rest)];
+		}
+		return index;
+	}
+	
+	/**
+	 * @return every mask of k of the low n bits, in increasing order
+	 */
+	private static int[] combinations(int n, int k) {
+		long size = 1;
+		for (int i = 0; i < k; ++i) {
+			size = size * (n - i) / (i + 1);
+		}
+		int[] masks = new int[(int)size];
+		int mask = (1 << k) - 1;
+		for (int i = 0; i < masks.length; ++i) {
+			masks[i] = mask;
+			if (mask != 0) {
+				// Gosper's hack: the next larger mask with the same number of bits
+				int lowest = mask & -mask;
+				int ripple = mask + lowest;
+				mask = ripple | (((mask ^ ripple) >>> 2) / lowest);
+			}
+		}
+		return masks;
+	}
+	
+	/**
+	 * Returns the game-theoretic value of a position.
+	 * 
+	 * @param position base-3 index of the position, as from BatchEvaluator.encode
+	 * @return 1 if the side to move wins under perfect play, 0 for a draw, -1 if it loses
+	 * @throws IllegalArgumentException if the position is not legal, or cannot be reached with X moving first
+	 */
+	public int getValue(long position) {
+		return (entry(position) >>> VALUE_SHIFT) - DRAW;
+	}
+	
+	/**
+	 * Returns the number of moves left in a position under perfect play:
+	 * the fastest win, the longest loss, or the moves until the board is full for a draw.
+	 * 
+	 * @param position base-3 index of the position, as from BatchEvaluator.encode
+	 * @return the distance to the end of the game; 0 if the game is over
+	 * @throws IllegalArgumentException if the position is not legal, or cannot be reached with X moving first
+	 */
+	public int getDistance(long position) {
+		return entry(position) & DISTANCE_MASK;
+	}
+	
+	/**
+	 * Returns the move that keeps the best value: the fastest win, or the longest loss.
+	 * Ties are broken in favor of the lowest cell.
+	 * 
+	 * @param position base-3 index of the position, as from BatchEvaluator.encode
+	 * @return the cell index of the best move, or NO_MOVE if the game is over
+	 * @throws IllegalArgumentException if the position is not legal, or cannot be reached with X moving first
+	 */
+	public int getBestMove(long position) {
+		int entry = entry(position);
+		if ((entry & DISTANCE_MASK) == 0) {
+			return NO_MOVE;
+		}
+		int index = (int)position;
+		int marks = 0;
+		for (int cell = 0, rest = index; cell < cells; ++cell, rest /= 3) {
+			marks += rest % 3 == BitBoard.EMPTY ? 0 : 1;
+		}
+		int player = marks % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+		for (int cell = 0, rest = index; cell < cells; ++cell, rest /= 3) {
+			if (rest % 3 == BitBoard.EMPTY) {
+				int after = entries[index + player * powers[cell]];
+				// the move to a successor that is worth the reverse of this position, one move closer to the end
+				if ((after >>> VALUE_SHIFT) == WIN + LOSS - (entry >>> VALUE_SHIFT) && (after & DISTANCE_MASK) + 1 == (entry & DISTANCE_MASK)) {
+					return cell;
+				}
+			}
+		}
+		throw new IllegalStateException(String.format("no move keeps the value of position %d", position));
+	}
+	
+	private int entry(long position) {
+		if (!solved) {
+			throw new IllegalStateException("the board has not been solved");
+		}
+		if (position < 0 || position >= entries.length || entries[(int)position] == UNSOLVED) {
+			throw new IllegalArgumentException(String.format("%d is not a reachable position on a %dx%d board", position, rows, cols));
+		}
+		return entries[(int)position];
+	}
+	
+	/**
+	 * @return the number of legal positions solved
+	 */
+	public long getPositions() {
+		return counts[WIN] + counts[DRAW] + counts[LOSS];
+	}
+	
+	/**
+	 * @return the number of positions won by the side to move
+	 */
+	public long getWins() {
+		return counts[WIN];
+	}
+	
+	/**
+	 * @return the number of positions drawn
+	 */
+	public long getDraws() {
+		return counts[DRAW];
+	}
+	
+	/**
+	 * @return the number of positions lost by the side to move, including finished games
+	 */
+	public long getLosses() {
+		return counts[LOSS];
+	}
+	
+	/**
+	 * @return the size of the table in bytes
+	 */
+	public long getTableBytes() {
+		return entries.length;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getWinLength() {
+		return winLength;
+	}
+	
+	/**
+	 * Solves a board and prints its value.
+	 * Usage: RetrogradeSolver [rows [cols [winLength [threads]]]]
+	 * where a lone rows solves a square board.
+	 * 
+	 * @param args optional board size, win length and thread count
+	 */
+	public static void main(String[] args) {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		int cols = args.length > 1 ? Integer.parseInt(args[1]) : rows;
+		int winLength = args.length > 2 ? Integer.parseInt(args[2]) : Math.min(rows, cols);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		RetrogradeSolver solver = new RetrogradeSolver(rows, cols, winLength, threads).solve();
+		double millis = (System.nanoTime() - start) / 1e6;
+		System.out.printf("solved %dx%d k=%d on %d threads in %.1f ms: %d positions (%d won, %d drawn, %d lost), %d byte table\n",
+				rows, cols, winLength, threads, millis, solver.getPositions(), solver.getWins(), solver.getDraws(), solver.getLosses(), solver.getTableBytes());
+		System.out.printf("empty board: value %d, %d moves, best move %d\n", solver.getValue(0), solver.getDistance(0), solver.getBestMove(0));
+	}
+}
@@ -0,0 +1,44 @@
+package game;
+
+/**
+ * Static helpers for a search result packed into one long, so results are passed and stored without objects:
+ * the score in the high 32 bits, the depth it was searched to in the next 16, and the move plus one in the low 16.
+ * The score being highest, packed results with different scores compare as their scores do.
+ */
+public final class Scores {
+	
+	private static final int DEPTH_SHIFT = 16;
+	private static final long FIELD_MASK = 0xFFFF;
+	
+	/**
+	 * @param score the score, from the searching player's perspective
+	 * @param depth the remaining depth searched, 0 to 65535
+	 * @param move the cell index of the best move, or Moves.NONE
+	 * @return the packed result
+	 */
+	public static long pack(int score, int depth, int move) {
+		return (long)score << 32 | (depth & FIELD_MASK) << DEPTH_SHIFT | ((move + 1) & FIELD_MASK);
+	}
+	
+	public static int score(long packed) {
+		return (int)(packed >> 32);
+	}
+	
+	public static int depth(long packed) {
+		return (int)((packed >>> DEPTH_SHIFT) & FIELD_MASK);
+	}
+	
+	/**
+	 * @return the cell index of the move, or Moves.NONE
+	 */
+	public static int move(long packed) {
+		return (int)(packed & FIELD_MASK) - 1;
+	}
+	
+	public static String toString(long packed) {
+		return String.format("Scores(score=%d, depth=%d, move=%d)", score(packed), depth(packed), move(packed));
+	}
+	
+	private Scores() {
+	}
+}
@@ -0,0 +1,14 @@
+package game;
+
+/**
+ * Thrown when a search runs past its deadline before completing.
+ * Carries no stack trace, since it is used to unwind a deep search rather than to report a bug.
+ */
+public class SearchTimeoutException extends RuntimeException {
+	
+	private static final long serialVersionUID = 42L;		// arbitrary; silence warning
+	
+	public SearchTimeoutException() {
+		super("search deadline passed", null, false, false);
+	}
+}
@@ -0,0 +1,215 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The rotations and reflections that map a board onto itself:
+ * 8 on a square N x N board, 4 (identity, half-turn and the two mirrors) on a rectangular one.
+ * Symmetric positions have the same game-theoretic value, so searches and caches
+ * can treat every position as its canonical representative:
+ * the transformed position with the smallest Zobrist hash.
+ * Moves chosen in the canonical frame are mapped back through the inverse transform.
+ * 
+ * Instances keep scratch space for canonicalization and are not thread-safe.
+ */
+public class Symmetry {
+	public static final int IDENTITY = 0;
+	
+	/**
+	 * Square-board transforms that are also symmetries of a rectangular board.
+	 */
+	private static final int[] RECTANGULAR = {0, 2, 4, 5};
+	
+	private final int rows;
+	private final int cols;
+	private final int[][] permutations;
+	private final int[] inverses;
+	private final long[] hashes;
+	private int lastTransform;
+	
+	public Symmetry(int rows, int cols) {
+		this.rows = rows;
+		this.cols = cols;
+		int count = rows == cols ? 8 : 4;
+		int cells = rows * cols;
+		permutations = new int[count][cells];
+		
+		for (int t = 0; t < count; ++t) {
+			for (int r = 0; r < rows; ++r) {
+				for (int c = 0; c < cols; ++c) {
+					permutations[t][r * cols + c] = map(rows == cols ? t : RECTANGULAR[t], r, c);
+				}
+			}
+		}
+		
+		inverses = new int[count];
+		for (int t = 0; t < count; ++t) {
+			for (int u = 0; u < count; ++u) {
+				boolean inverse = true;
+				for (int cell = 0; cell < cells && inverse; ++cell) {
+					inverse = permutations[u][permutations[t][cell]] == cell;
+				}
+				if (inverse) {
+					inverses[t] = u;
+					break;
+				}
+			}
+		}
+		hashes = new long[count];
+	}
+	
+	public Symmetry(BitBoard state) {
+		this(state.getRows(), state.getCols());
+	}
+	
+	/**
+	 * Maps (r, c) through transform t of a square board, or its rectangular equivalent.
+	 * 0: identity, 1-3: clockwise rotations, 4: mirror columns, 5: mirror rows, 6: transpose, 7: anti-transpose.
+	 * 
+	 * @param t the transform
+	 * @param r row
+	 * @param c column
+	 * @return the transformed cell index
+	 */
+	private int map(int t, int r, int c) {
+		int lastRow = rows - 1;
+		int lastCol = cols - 1;
+		switch (t) {
+			case 1:
+				return c * cols + (lastRow - r);
+			case 2:
+				return (lastRow - r) * cols + (lastCol - c);
+			case 3:
+				return (lastCol - c) * cols + r;
+			case 4:
+				return r * cols + (lastCol - c);
+			case 5:
+				return (lastRow - r) * cols + c;
+			case 6:
+				return c * cols + r;
+			case 7:
+				return (lastCol - c) * cols + (lastRow - r);
+			default:
+				return r * cols + c;
+		}
+	}
+	
+	/**
+	 * Finds the transform that takes state to its canonical representative.
+	 * The representative's hash is available from getCanonicalHash() until the next call.
+	 * 
+	 * @param state the position to canonicalize; must have this Symmetry's dimensions
+	 * @return the canonical transform
+	 */
+	public int canonicalTransform(BitBoard state) {
+		Arrays.fill(hashes, 0L);
+		for (int player = BitBoard.PLAYER1; player <= BitBoard.PLAYER2; ++player) {
+			for (int word = 0; word < state.getWordCount(); ++word) {
+				long mask = state.getMask(player, word);
+				while (mask != 0) {
+					int cell = word * Long.SIZE + Long.numberOfTrailingZeros(mask);
+					mask &= mask - 1;
+					for (int t = 0; t < hashes.length; ++t) {
+						hashes[t] ^= Zobrist.cellKey(permutations[t][cell], player);
+					}
+				}
+			}
+		}
+		
+		lastTransform = IDENTITY;
+		for (int t = 1; t < hashes.length; ++t) {
+			if (Long.compareUnsigned(hashes[t], hashes[lastTransform]) < 0) {
+				lastTransform = t;
+			}
+		}
+		return lastTransform;
+	}
+	
+	/**
+	 * Returns the Zobrist hash of the representative found by the last call to canonicalTransform.
+	 * 
+	 * @return the canonical hash
+	 */
+	public long getCanonicalHash() {
+		return hashes[lastTransform];
+	}
+	
+	/**
+	 * Returns the canonical representative of state.
+	 * 
+	 * @param state the position to canonicalize
+	 * @return a new BitBoard holding the representative
+	 */
+	public BitBoard canonicalize(BitBoard state) {
+		return transform(state, canonicalTransform(state));
+	}
+	
+	/**
+	 * Returns the canonical representative of board.
+	 * 
+	 * @param board the position to canonicalize
+	 * @return a new Board holding the representative
+	 */
+	public Board canonicalize(Board board) {
+		return new Board(canonicalize(board.getBitBoard()));
+	}
+	
+	/**
+	 * Applies transform t to every cell of state.
+	 * 
+	 * @param state the position to transform
+	 * @param t the transform
+	 * @return a new BitBoard holding the transformed position
+	 */
+	public BitBoard transform(BitBoard state, int t) {
+		BitBoard result = new BitBoard(rows, cols, state.getWinLength());
+		for (int cell = 0; cell < state.getCells(); ++cell) {
+			int player = state.get(cell);
+			if (player != BitBoard.EMPTY) {
+				result.place(permutations[t][cell], player);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Maps a cell through transform t.
+	 * 
+	 * @param cell the cell index
+	 * @param t the transform
+	 * @return the transformed cell index
+	 */
+	public int transformCell(int cell, int t) {
+		return permutations[t][cell];
+	}
+	
+	/**
+	 * Maps a cell of the transformed board back to the original board; the inverse of transformCell.
+	 * 
+	 * @param cell the cell index in the transformed frame
+	 * @param t the transform that was applied
+	 * @return the original cell index
+	 */
+	public int inverseTransformCell(int cell, int t) {
+		return permutations[inverses[t]][cell];
+	}
+	
+	public int inverse(int t) {
+		return inverses[t];
+	}
+	
+	/**
+	 * @return the number of symmetries of the board, including the identity
+	 */
+	public int size() {
+		return permutations.length;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+}
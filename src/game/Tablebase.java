@@ -0,0 +1,301 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Perfect-play table of every position reachable on a small board, with either player moving first.
+ * Each (position, side to move) is stored as one byte: the best move and its game-theoretic value.
+ * Positions are indexed by their base-3 encoding (cell i contributes player * 3^i),
+ * followed by the side to move, so a lookup is a single read from a memory-mapped file.
+ * 
+ * File layout (big-endian): int magic, byte version, byte rows, byte cols, byte win length,
+ * then 2 * 3^(rows * cols) entry bytes.
+ */
+public class Tablebase {
+	public static final int MAX_CELLS = 16;
+	public static final int NO_MOVE = -1;
+	public static final Path DEFAULT_PATH = Paths.get("tictactoe-3x3.tb");
+	
+	private static final int MAGIC = 0x54545442;		// "TTTB"
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	
+	// entry byte: low 5 bits hold the move (31 if none), the next 2 bits hold the value
+	private static final int MOVE_MASK = 0x1F;
+	private static final int VALUE_SHIFT = 5;
+	private static final int UNSOLVED = 0;
+	private static final int LOSS = 1;
+	private static final int DRAW = 2;
+	private static final int WIN = 3;
+	
+	/**
+	 * Opens the tablebase at path, generating and writing a 3x3 tablebase there first if it does not exist.
+	 * 
+	 * @param path location of the tablebase file
+	 * @return the opened tablebase
+	 * @throws IOException if the file cannot be read or written
+	 */
+	public static Tablebase openOrGenerate(Path path) throws IOException {
+		if (!Files.exists(path)) {
+			generate(path, 3, 3, 3);
+		}
+		return open(path);
+	}
+	
+	/**
+	 * Memory-maps an existing tablebase file.
+	 * 
+	 * @param path location of the tablebase file
+	 * @return the opened tablebase
+	 * @throws IOException if the file cannot be read, or is not a tablebase
+	 */
+	public static Tablebase open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+				throw new IOException(String.format("%s is not a tablebase", path));
+			}
+			int rows = buffer.get(5);
+			int cols = buffer.get(6);
+			// files from before win lengths were configurable leave the byte zeroed
+			int winLength = buffer.get(7) == 0 ? Math.min(rows, cols) : buffer.get(7);
+			Tablebase tablebase = new Tablebase(buffer, rows, cols, winLength);
+			if (buffer.limit() != HEADER_SIZE + 2 * tablebase.positions) {
+				throw new IOException(String.format("%s is truncated", path));
+			}
+			return tablebase;
+		}
+	}
+	
+	/**
+	 * Solves every position reachable on a rows x cols board, and writes the tablebase to path.
+	 * The file is written to a temporary sibling first and then moved into place.
+	 * 
+	 * @param path location of the tablebase file
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void generate(Path path, int rows, int cols, int winLength) throws IOException {
+		byte[] entries = solve(rows, cols, winLength);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		header.putInt(MAGIC).put(VERSION).put((byte)rows).put((byte)cols).put((byte)winLength);
+		header.flip();
+		
+		Path absolute = path.toAbsolutePath();
+		Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(header);
+			ByteBuffer body = ByteBuffer.wrap(entries);
+			while (body.hasRemaining()) {
+				channel.write(body);
+			}
+		}
+		Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Solves every position reachable from the empty rows x cols board, with either player moving first.
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param winLength the number of marks in a row needed to win
+	 * @return the entry bytes, indexed as in the file
+	 */
+	static byte[] solve(int rows, int cols, int winLength) {
+		if (rows * cols > MAX_CELLS) {
+			throw new IllegalArgumentException(String.format("%dx%d is too large for a tablebase", rows, cols));
+		}
+		int[] powers = powersOfThree(rows * cols);
+		byte[] entries = new byte[2 * powers[rows * cols]];
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		solve(state, BitBoard.PLAYER1, 0, powers, entries);
+		solve(state, BitBoard.PLAYER2, 0, powers, entries);
+		return entries;
+	}
+	
+	/**
+	 * Memoized negamax over the whole game. Ties go to the lowest cell, as in ComputerPlayer's min-max search.
+	 * 
+	 * @param state the position to solve; restored before returning
+	 * @param player the player whose turn it is
+	 * @param position base-3 index of state
+	 * @param powers powers of three
+	 * @param entries the table being filled
+	 * @return the value of state from player's perspective
+	 */
+	private static int solve(BitBoard state, int player, int position, int[] powers, byte[] entries) {
+		int cells = state.getCells();
+		int index = (player - 1) * powers[cells] + position;
+		if (entries[index] != 0) {
+			return toScore(entries[index]);
+		}
+		
+		int bestMove = MOVE_MASK;
+		int best;
+		if (state.terminal()) {
+			best = state.utility(player);
+		}
+		else {
+			best = Integer.MIN_VALUE;
+			int otherPlayer = BitBoard.getOtherPlayer(player);
+			for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+				state.place(cell, player);
+				int score = -solve(state, otherPlayer, position + player * powers[cell], powers, entries);
+				state.undo(cell);
+				if (score > best) {
+					best = score;
+					bestMove = cell;
+				}
+			}
+		}
+		
+		entries[index] = (byte)(((best + 2) << VALUE_SHIFT) | bestMove);
+		return best;
+	}
+	
+	private static int toScore(byte entry) {
+		return ((entry & 0xFF) >>> VALUE_SHIFT) - 2;
+	}
+	
+	private static int[] powersOfThree(int cells) {
+		int[] powers = new int[cells + 1];
+		powers[0] = 1;
+		for (int i = 1; i <= cells; ++i) {
+			powers[i] = 3 * powers[i - 1];
+		}
+		return powers;
+	}
+	
+	
+	private final ByteBuffer entries;
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int positions;
+	private final int[] powers;
+	
+	private Tablebase(ByteBuffer entries, int rows, int cols, int winLength) throws IOException {
+		if (rows <= 0 || cols <= 0 || rows * cols > MAX_CELLS) {
+			throw new IOException(String.format("unsupported tablebase size %dx%d", rows, cols));
+		}
+		this.entries = entries;
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		powers = powersOfThree(rows * cols);
+		positions = powers[rows * cols];
+	}
+	
+	/**
+	 * Determines if this tablebase was built for state's board size and win length.
+	 * 
+	 * @param state the position to check
+	 * @return true if state can be looked up
+	 */
+	public boolean covers(BitBoard state) {
+		return state.getRows() == rows && state.getCols() == cols && state.getWinLength() == winLength;
+	}
+	
+	/**
+	 * Returns the perfect-play move for player in state.
+	 * 
+	 * @param state the position to look up; must be covered by this tablebase
+	 * @param player the player whose turn it is
+	 * @return the cell index of the best move, or NO_MOVE if the game is over or the position is unreachable
+	 */
+	public int getBestMove(BitBoard state, int player) {
+		int entry = entry(state, player);
+		int move = entry & MOVE_MASK;
+		return entry >>> VALUE_SHIFT == UNSOLVED || move == MOVE_MASK ? NO_MOVE : move;
+	}
+	
+	/**
+	 * Returns the game-theoretic value of state under perfect play.
+	 * 
+	 * @param state the position to look up; must be covered by this tablebase
+	 * @param player the player whose turn it is
+	 * @return 1 if player wins, 0 for a draw, -1 if player loses
+	 * @throws IllegalArgumentException if the position is not reachable
+	 */
+	public int getValue(BitBoard state, int player) {
+		int value = entry(state, player) >>> VALUE_SHIFT;
+		switch (value) {
+			case WIN:
+				return 1;
+			case DRAW:
+				return 0;
+			case LOSS:
+				return -1;
+			default:
+				throw new IllegalArgumentException(String.format("%s is not a reachable position", state));
+		}
+	}
+	
+	/**
+	 * Computes the base-3 index of state.
+	 * 
+	 * @param state the position to index
+	 * @return sum of player * 3^cell over every occupied cell
+	 */
+	public int index(BitBoard state) {
+		int index = 0;
+		for (int player = BitBoard.PLAYER1; player <= BitBoard.PLAYER2; ++player) {
+			// tablebases are at most MAX_CELLS cells, which fit in the first word
+			long mask = state.getMask(player, 0);
+			while (mask != 0) {
+				index += player * powers[Long.numberOfTrailingZeros(mask)];
+				mask &= mask - 1;
+			}
+		}
+		return index;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getWinLength() {
+		return winLength;
+	}
+	
+	private int entry(BitBoard state, int player) {
+		if (!covers(state)) {
+			throw new IllegalArgumentException(String.format("tablebase is %dx%d k=%d, but the board is %dx%d k=%d",
+					rows, cols, winLength, state.getRows(), state.getCols(), state.getWinLength()));
+		}
+		return entries.get(HEADER_SIZE + (player - 1) * positions + index(state)) & 0xFF;
+	}
+	
+	/**
+	 * Generates a tablebase ahead of time.
+	 * Usage: Tablebase [path [rows cols [winLength]]]
+	 * 
+	 * @param args optional output path, board size and win length
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path path = args.length > 0 ? Paths.get(args[0]) : DEFAULT_PATH;
+		int rows = args.length > 2 ? Integer.parseInt(args[1]) : 3;
+		int cols = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int winLength = args.length > 3 ? Integer.parseInt(args[3]) : Math.min(rows, cols);
+		long start = System.nanoTime();
+		generate(path, rows, cols, winLength);
+		System.out.printf("wrote %dx%d k=%d tablebase to %s in %.1f ms\n", rows, cols, winLength, path, (System.nanoTime() - start) / 1e6);
+	}
+}
@@ -0,0 +1,60 @@
+package game;
+
+import state.SearchEngine;
+
+/**
+ * SearchEngine that looks moves up in a Tablebase, and searches with another engine
+ * for positions the tablebase does not cover.
+ */
+public class TablebaseSearch implements SearchEngine<BitBoard> {
+	
+	private final Tablebase tablebase;
+	private final SearchEngine<? super BitBoard> fallback;
+	private long lookups;
+	
+	/**
+	 * @param tablebase the perfect-play moves to look up
+	 * @param fallback the engine to search positions the tablebase does not cover
+	 */
+	public TablebaseSearch(Tablebase tablebase, SearchEngine<? super BitBoard> fallback) {
+		this.tablebase = tablebase;
+		this.fallback = fallback;
+	}
+	
+	@Override
+	public int search(BitBoard state, int player) {
+		int cell = tablebase.covers(state) ? tablebase.getBestMove(state, player) : Tablebase.NO_MOVE;
+		if (cell == Tablebase.NO_MOVE) {
+			return fallback.search(state, player);
+		}
+		++lookups;
+		return cell;
+	}
+	
+	/**
+	 * Counts each lookup as one position, plus the positions the fallback engine visited.
+	 */
+	@Override
+	public long getNodesVisited() {
+		return lookups + fallback.getNodesVisited();
+	}
+	
+	@Override
+	public void resetStatistics() {
+		lookups = 0;
+		fallback.resetStatistics();
+	}
+	
+	@Override
+	public void clear() {
+		fallback.clear();
+	}
+	
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+	
+	public SearchEngine<? super BitBoard> getFallback() {
+		return fallback;
+	}
+}
@@ -5,12 +5,14 @@ import state.MinMaxGameTreeNode;
 
 public class TicTacToeGameTreeNode extends MinMaxGameTreeNode {
 
-	private Pair move;
+	public static final int NO_MOVE = -1;
+	
+	private int move;
 	private int rank;
 	
 	public TicTacToeGameTreeNode(GameState state, AdversaryType adversaryType) {
 		super(state, adversaryType);
-		move = new Pair(-1, -1);
+		move = NO_MOVE;
 		rank = 0;
 	}
 	
@@ -19,13 +21,17 @@ public class TicTacToeGameTreeNode extends MinMaxGameTreeNode {
 		return String.format("GameTreeNode(%s, rank=%d, player=%s)", getState().toString(), getRank(), getAdversaryType().toString());
 	}
 	
-	public Pair getMove() {
+	/**
+	 * Returns the move that led to this node, as a cell index (row * cols + col).
+	 * 
+	 * @return the cell of the move, or NO_MOVE for the root
+	 */
+	public int getMove() {
 		return move;
 	}
 	
-	public void setMove(int row, int col) {
-		move.setFirst(row);
-		move.setSecond(col);
+	public void setMove(int cell) {
+		move = cell;
 	}
 
 	public int getRank() {
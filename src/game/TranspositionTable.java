@@ -0,0 +1,181 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache of search results keyed by Zobrist hash.
+ * Entries live in parallel primitive arrays indexed by the low bits of the hash:
+ * the full key, to detect collisions, the score, depth and best move packed into one long by Scores,
+ * and the bound flag with the generation that stored it, so a probe touches three arrays.
+ * When two positions map to the same slot, the entry from an older search, or with a shallower depth, is replaced.
+ */
+public class TranspositionTable {
+	public static final byte EXACT = 0;
+	public static final byte LOWER_BOUND = 1;
+	public static final byte UPPER_BOUND = 2;
+	public static final int NO_MOVE = -1;
+	
+	private static final int FLAG_BITS = 2;
+	private static final int FLAG_MASK = (1 << FLAG_BITS) - 1;
+	private static final int MAX_GENERATION = 0xFF >>> FLAG_BITS;
+	
+	private final int mask;
+	private final long[] keys;
+	private final long[] entries;
+	// generation << FLAG_BITS | flag; generation 0 marks an empty slot
+	private final byte[] tags;
+	private int generation;
+	
+	private long hits;
+	private long misses;
+	private long collisions;
+	private long stores;
+	private long replacements;
+	
+	/**
+	 * Constructs a table with at least the given number of slots, rounded up to a power of two.
+	 * 
+	 * @param capacity the minimum number of entries
+	 */
+	public TranspositionTable(int capacity) {
+		int size = Zobrist.tableSize(capacity);
+		mask = size - 1;
+		keys = new long[size];
+		entries = new long[size];
+		tags = new byte[size];
+		generation = 1;
+	}
+	
+	/**
+	 * Looks up key.
+	 * 
+	 * @param key Zobrist hash of the position, including the side to move
+	 * @return the slot holding key, or -1 if it is not in the table
+	 */
+	public int probe(long key) {
+		int slot = (int)key & mask;
+		if (tags[slot] != 0 && keys[slot] == key) {
+			++hits;
+			return slot;
+		}
+		if (tags[slot] != 0) {
+			++collisions;
+		}
+		++misses;
+		return -1;
+	}
+	
+	/**
+	 * Records a search result for key, if the slot's current entry is not worth more.
+	 * 
+	 * @param key Zobrist hash of the position, including the side to move
+	 * @param score the score found for the position
+	 * @param flag EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param depth remaining depth the position was searched to
+	 * @param move best move found, or NO_MOVE
+	 */
+	public void store(long key, int score, byte flag, int depth, int move) {
+		int slot = (int)key & mask;
+		if (tags[slot] != 0 && keys[slot] != key) {
+			if (getGeneration(slot) == generation && Scores.depth(entries[slot]) > depth) {
+				return;
+			}
+			++replacements;
+		}
+		++stores;
+		keys[slot] = key;
+		entries[slot] = Scores.pack(score, depth, move);
+		tags[slot] = (byte)(generation << FLAG_BITS | flag);
+	}
+	
+	/**
+	 * Starts a new search; entries stored by earlier searches become the first to be replaced.
+	 */
+	public void newSearch() {
+		generation = generation == MAX_GENERATION ? 1 : generation + 1;
+	}
+	
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		Arrays.fill(tags, (byte)0);
+		generation = 1;
+	}
+	
+	public int getScore(int slot) {
+		return Scores.score(entries[slot]);
+	}
+	
+	public int getMove(int slot) {
+		return Scores.move(entries[slot]);
+	}
+	
+	public int getDepth(int slot) {
+		return Scores.depth(entries[slot]);
+	}
+	
+	public byte getFlag(int slot) {
+		return (byte)(tags[slot] & FLAG_MASK);
+	}
+	
+	/**
+	 * @param slot a slot returned by probe
+	 * @return the score, depth and move stored in slot, packed by Scores
+	 */
+	public long getEntry(int slot) {
+		return entries[slot];
+	}
+	
+	private int getGeneration(int slot) {
+		return (tags[slot] & 0xFF) >>> FLAG_BITS;
+	}
+	
+	public int getCapacity() {
+		return keys.length;
+	}
+	
+	public long getHits() {
+		return hits;
+	}
+	
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the number of misses where the slot was held by a different position.
+	 * 
+	 * @return the collision count
+	 */
+	public long getCollisions() {
+		return collisions;
+	}
+	
+	public long getStores() {
+		return stores;
+	}
+	
+	/**
+	 * Returns the number of stores that evicted a different position.
+	 * 
+	 * @return the replacement count
+	 */
+	public long getReplacements() {
+		return replacements;
+	}
+	
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		collisions = 0;
+		stores = 0;
+		replacements = 0;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("TranspositionTable(capacity=%d, hits=%d, misses=%d, collisions=%d, stores=%d, replacements=%d)",
+				getCapacity(), hits, misses, collisions, stores, replacements);
+	}
+}
@@ -0,0 +1,96 @@
+package game;
+
+/**
+ * Zobrist hashing keys for BitBoard positions.
+ * A position's hash is the XOR of the key of every occupied (cell, player),
+ * so it can be updated incrementally in O(1) per move.
+ * Keys come from a fixed-seed SplitMix64 sequence, so hashes are stable across runs and processes.
+ */
+public final class Zobrist {
+	public static final int MAX_CELLS = 1024;
+	
+	/**
+	 * Default number of entries in a table keyed by these hashes; holds every reachable 3x3 position.
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+	
+	private static final long SEED = 0x5DEECE66DL;
+	private static final long[] CELL_KEYS = new long[2 * MAX_CELLS];
+	private static final long[] SIDE_KEYS = new long[2];
+	
+	static {
+		long state = SEED;
+		for (int i = 0; i < CELL_KEYS.length; ++i) {
+			state += 0x9E3779B97F4A7C15L;
+			CELL_KEYS[i] = mix(state);
+		}
+		for (int i = 0; i < SIDE_KEYS.length; ++i) {
+			state += 0x9E3779B97F4A7C15L;
+			SIDE_KEYS[i] = mix(state);
+		}
+	}
+	
+	/**
+	 * Returns the key of player occupying cell.
+	 * 
+	 * @param cell index of the cell
+	 * @param player BitBoard.PLAYER1 or BitBoard.PLAYER2
+	 * @return the 64-bit key
+	 */
+	public static long cellKey(int cell, int player) {
+		return CELL_KEYS[2 * cell + player - 1];
+	}
+	
+	/**
+	 * Returns the key XOR-ed into a hash to record whose turn it is.
+	 * 
+	 * @param player BitBoard.PLAYER1 or BitBoard.PLAYER2
+	 * @return the 64-bit key
+	 */
+	public static long sideKey(int player) {
+		return SIDE_KEYS[player - 1];
+	}
+	
+	/**
+	 * Returns a key identifying a board's dimensions and win length, for caches shared between board sizes,
+	 * where positions with the same marks on different boards would otherwise hash alike.
+	 * 
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param winLength number of marks in a row needed to win
+	 * @return the 64-bit key
+	 */
+	public static long shapeKey(int rows, int cols, int winLength) {
+		return mix(SEED ^ ((long)rows << 32 | (long)cols << 16 | winLength));
+	}
+	
+	/**
+	 * Rounds a table's capacity up to a power of two, so that a slot can be taken from the low bits of a key.
+	 * 
+	 * @param capacity the minimum number of entries
+	 * @return the number of slots to allocate
+	 * @throws IllegalArgumentException if capacity is not positive or above 1 << 30
+	 */
+	public static int tableSize(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException(String.format("invalid capacity %d", capacity));
+		}
+		int size = Integer.highestOneBit(capacity);
+		return size < capacity ? size << 1 : size;
+	}
+	
+	/**
+	 * SplitMix64 finalizer.
+	 * 
+	 * @param z the value to mix
+	 * @return a well-distributed 64-bit value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	private Zobrist() {
+	}
+}
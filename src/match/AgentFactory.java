@@ -0,0 +1,62 @@
+package match;
+
+import game.Agent;
+import game.Board;
+import game.ComputerPlayer;
+import game.IterativeDeepeningSearch;
+import game.MonteCarloSearch;
+
+/**
+ * Creates the agents for one side of a match.
+ * Agents are not thread-safe, so each worker thread of a MatchRunner creates its own.
+ */
+public interface AgentFactory {
+	
+	/**
+	 * @param icon the icon the agent plays
+	 * @param board an empty board of the size the agent will play on
+	 * @param seed seed for any random choices the agent makes
+	 * @return a new Agent
+	 */
+	public Agent create(String icon, Board board, long seed);
+	
+	/**
+	 * Parses an agent description:
+	 *   "random" for a RandomAgent,
+	 *   "greedy" for a GreedyAgent,
+	 *   "engine" for a ComputerPlayer with the default search mode,
+	 *   "engine:MODE" for a ComputerPlayer with the given ComputerPlayer.SearchMode, and
+	 *   "engine:ITERATIVE_DEEPENING:millis" for an iterative-deepening ComputerPlayer with the given time budget per move,
+	 *   "engine:MONTE_CARLO:millis[:threads]" for a Monte Carlo ComputerPlayer with the given time budget per move and threads, and
+	 *   "engine:MONTE_CARLO:0:threads:playouts" for a Monte Carlo ComputerPlayer that runs a fixed number of playouts per move.
+	 * 
+	 * @param description the description to parse
+	 * @return a factory for the described agents
+	 */
+	public static AgentFactory parse(String description) {
+		String[] parts = description.split(":");
+		switch (parts[0].toLowerCase()) {
+			case "random":
+				return (icon, board, seed) -> new RandomAgent(seed);
+			case "greedy":
+				return (icon, board, seed) -> new GreedyAgent(icon, seed);
+			case "engine":
+				ComputerPlayer.SearchMode mode = parts.length > 1 ? ComputerPlayer.SearchMode.valueOf(parts[1].toUpperCase()) : ComputerPlayer.SearchMode.ALPHA_BETA;
+				long budget = parts.length > 2 ? Long.parseLong(parts[2]) : IterativeDeepeningSearch.DEFAULT_BUDGET_MILLIS;
+				int threads = parts.length > 3 ? Integer.parseInt(parts[3]) : 1;
+				long playouts = parts.length > 4 ? Long.parseLong(parts[4]) : MonteCarloSearch.UNLIMITED;
+				return (icon, board, seed) -> {
+					ComputerPlayer computer = new ComputerPlayer(icon, Board.getOtherPlayer(icon), board, mode);
+					if (mode == ComputerPlayer.SearchMode.ITERATIVE_DEEPENING) {
+						computer.setIterativeDeepeningSearch(new IterativeDeepeningSearch(budget));
+					}
+					else if (mode == ComputerPlayer.SearchMode.MONTE_CARLO) {
+						computer.setMonteCarloSearch(new MonteCarloSearch(threads, budget, playouts, seed));
+					}
+					return computer;
+				};
+			default:
+				throw new IllegalArgumentException(String.format("unknown agent \"%s\"", description));
+		}
+	}
+}
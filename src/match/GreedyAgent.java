@@ -0,0 +1,89 @@
+package match;
+
+import java.util.Random;
+
+import game.Agent;
+import game.BitBoard;
+import game.Board;
+import game.Evaluator;
+import game.Moves;
+import game.OpenLinesEvaluator;
+import game.Pair;
+
+/**
+ * Looks one move ahead: completes a line if it can, blocks the opponent's line if it must,
+ * and otherwise plays the move its Evaluator likes best, breaking ties at random.
+ */
+public class GreedyAgent implements Agent {
+	
+	private final int playerIndex;
+	private final Evaluator evaluator;
+	private final Random random;
+	
+	/**
+	 * @param icon the agent's icon
+	 * @param evaluator scores the position after each candidate move
+	 * @param seed seed for breaking ties, so that a run of games can be repeated
+	 */
+	public GreedyAgent(String icon, Evaluator evaluator, long seed) {
+		playerIndex = Board.toPlayerIndex(icon);
+		this.evaluator = evaluator;
+		random = new Random(seed);
+	}
+	
+	public GreedyAgent(String icon, long seed) {
+		this(icon, new OpenLinesEvaluator(), seed);
+	}
+	
+	@Override
+	public Pair getNextMove(Board board) {
+		// moves are tried on a copy, so a board shared with another thread is never written
+		BitBoard state = new BitBoard(board.getBitBoard());
+		int opponentIndex = BitBoard.getOtherPlayer(playerIndex);
+		int winning = findWinningMove(state, playerIndex);
+		if (winning < 0) {
+			winning = findWinningMove(state, opponentIndex);
+		}
+		if (winning >= 0) {
+			return toPair(state, winning);
+		}
+		
+		int bestCell = -1;
+		int bestScore = Integer.MIN_VALUE;
+		int ties = 0;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			state.place(cell, playerIndex);
+			int score = state.terminal() ? 0 : -evaluator.evaluate(state, opponentIndex);
+			state.undo(cell);
+			if (score > bestScore) {
+				bestScore = score;
+				bestCell = cell;
+				ties = 1;
+			}
+			// reservoir sampling, so every tied cell is equally likely
+			else if (score == bestScore && random.nextInt(++ties) == 0) {
+				bestCell = cell;
+			}
+		}
+		return toPair(state, bestCell);
+	}
+	
+	/**
+	 * @return a cell that wins the game for player, or -1 if there is none
+	 */
+	private static int findWinningMove(BitBoard state, int player) {
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			state.place(cell, player);
+			boolean won = state.winner() == player;
+			state.undo(cell);
+			if (won) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+	
+	private static Pair toPair(BitBoard state, int cell) {
+		return Moves.toPair(cell, state.getCols());
+	}
+}
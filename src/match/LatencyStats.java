@@ -0,0 +1,116 @@
+package match;
+
+/**
+ * Distribution of latencies in nanoseconds, kept in log-linear buckets:
+ * each power of two is split into SUB_BUCKETS equal parts, so percentiles are accurate to within 1/SUB_BUCKETS.
+ * Recording never allocates. Not thread-safe; give each thread its own and merge them afterwards.
+ */
+public class LatencyStats {
+	
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	
+	private final long[] buckets;
+	private long count;
+	private long sum;
+	private long max;
+	
+	public LatencyStats() {
+		buckets = new long[Long.SIZE * SUB_BUCKETS];
+	}
+	
+	/**
+	 * @param nanos a latency, in nanoseconds
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		++buckets[bucket(nanos)];
+		++count;
+		sum += nanos;
+		max = Math.max(max, nanos);
+	}
+	
+	/**
+	 * Adds every latency recorded by other to this.
+	 * 
+	 * @param other the stats to add
+	 */
+	public void merge(LatencyStats other) {
+		for (int i = 0; i < buckets.length; ++i) {
+			buckets[i] += other.buckets[i];
+		}
+		count += other.count;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public long getMax() {
+		return max;
+	}
+	
+	public double getMean() {
+		return count == 0 ? 0 : (double)sum / count;
+	}
+	
+	/**
+	 * Returns an upper bound of the latency below which the given fraction of latencies fall.
+	 * 
+	 * @param quantile the fraction, between 0 and 1; e.g. 0.99 for the 99th percentile
+	 * @return the percentile latency, in nanoseconds
+	 */
+	public long getPercentile(double quantile) {
+		long rank = (long)Math.ceil(quantile * count);
+		long seen = 0;
+		for (int i = 0; i < buckets.length; ++i) {
+			seen += buckets[i];
+			if (seen >= rank && seen > 0) {
+				return Math.min(max, upperBound(i));
+			}
+		}
+		return max;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%s p50=%s p99=%s max=%s", count,
+				format(getMean()), format(getPercentile(0.5)), format(getPercentile(0.99)), format(max));
+	}
+	
+	/**
+	 * @return nanos in the most readable of ns, us, ms and s
+	 */
+	public static String format(double nanos) {
+		if (nanos < 1e3) {
+			return String.format("%.0fns", nanos);
+		}
+		if (nanos < 1e6) {
+			return String.format("%.1fus", nanos / 1e3);
+		}
+		if (nanos < 1e9) {
+			return String.format("%.1fms", nanos / 1e6);
+		}
+		return String.format("%.2fs", nanos / 1e9);
+	}
+	
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int)nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int fraction = (int)(nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + fraction;
+	}
+	
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long fraction = bucket % SUB_BUCKETS;
+		return ((SUB_BUCKETS + fraction + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
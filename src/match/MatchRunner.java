@@ -0,0 +1,184 @@
+package match;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import game.Agent;
+import game.BitBoard;
+import game.Board;
+import game.GameRecordWriter;
+import game.Pair;
+
+/**
+ * Plays many games between two agents, A and B, across a pool of worker threads, without any console I/O.
+ * Each worker creates its own agents from the factories and reuses them for every game it plays,
+ * and keeps its own MatchStats, so workers share nothing but the counter handing out games.
+ * A plays X, and so moves first, in even-numbered games, and O in odd-numbered ones.
+ * If a GameRecordWriter is set, every finished game is appended to it.
+ */
+public class MatchRunner {
+	
+	private final AgentFactory factoryA;
+	private final AgentFactory factoryB;
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int threads;
+	private final long seed;
+	private GameRecordWriter recorder;
+	
+	/**
+	 * @param factoryA creates agent A
+	 * @param factoryB creates agent B
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param winLength number of marks in a row needed to win
+	 * @param threads number of worker threads
+	 * @param seed base seed for the agents' random choices; worker i seeds its agents from seed + i
+	 */
+	public MatchRunner(AgentFactory factoryA, AgentFactory factoryB, int rows, int cols, int winLength, int threads, long seed) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(String.format("invalid thread count %d", threads));
+		}
+		this.factoryA = factoryA;
+		this.factoryB = factoryB;
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		this.threads = threads;
+		this.seed = seed;
+	}
+	
+	public MatchRunner(AgentFactory factoryA, AgentFactory factoryB, int threads) {
+		this(factoryA, factoryB, 3, 3, 3, threads, 0);
+	}
+	
+	/**
+	 * Plays games games and collects their results.
+	 * 
+	 * @param games the number of games to play
+	 * @return the combined results of every game
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 * @throws IllegalStateException if an agent plays an illegal move
+	 */
+	public MatchStats run(int games) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicInteger nextGame = new AtomicInteger();
+		List<Future<MatchStats>> workers = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			long workerSeed = seed + i;
+			workers.add(executor.submit(() -> play(nextGame, games, workerSeed)));
+		}
+		executor.shutdown();
+		
+		MatchStats stats = new MatchStats();
+		try {
+			for (Future<MatchStats> worker : workers) {
+				stats.merge(worker.get());
+			}
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		return stats;
+	}
+	
+	/**
+	 * @return the writer games are recorded to, or null
+	 */
+	public GameRecordWriter getRecorder() {
+		return recorder;
+	}
+	
+	/**
+	 * Records every game played from now on; the writer must be for this runner's board.
+	 * 
+	 * @param recorder the writer to append games to, or null to stop recording
+	 */
+	public void setRecorder(GameRecordWriter recorder) {
+		if (recorder != null && (recorder.getRows() != rows || recorder.getCols() != cols || recorder.getWinLength() != winLength)) {
+			throw new IllegalArgumentException(String.format("recorder is for %dx%d k=%d games, not %dx%d k=%d",
+					recorder.getRows(), recorder.getCols(), recorder.getWinLength(), rows, cols, winLength));
+		}
+		this.recorder = recorder;
+	}
+	
+	/**
+	 * One worker's loop: claims and plays games until all have been handed out.
+	 */
+	private MatchStats play(AtomicInteger nextGame, int games, long seed) {
+		Board empty = new Board(rows, cols, winLength);
+		Agent aAsX = factoryA.create(Board.PLAYER1, empty, seed);
+		Agent aAsO = factoryA.create(Board.PLAYER2, empty, seed);
+		// B's choices must not mirror A's when both are random
+		Agent bAsX = factoryB.create(Board.PLAYER1, empty, ~seed);
+		Agent bAsO = factoryB.create(Board.PLAYER2, empty, ~seed);
+		MatchStats stats = new MatchStats();
+		
+		try {
+			for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+				boolean aIsX = game % 2 == 0;
+				if (aIsX) {
+					playGame(aAsX, bAsO, true, stats);
+				}
+				else {
+					playGame(bAsX, aAsO, false, stats);
+				}
+			}
+		}
+		finally {
+			for (Agent agent : new Agent[] {aAsX, aAsO, bAsX, bAsO}) {
+				agent.shutdown();
+			}
+		}
+		return stats;
+	}
+	
+	/**
+	 * Plays one game to the end, recording every move's latency and the result in stats, and the game in the recorder if set.
+	 */
+	private void playGame(Agent x, Agent o, boolean aIsX, MatchStats stats) {
+		Board board = new Board(rows, cols, winLength);
+		String icon = Board.PLAYER1;
+		int moves = 0;
+		int[] cells = new int[rows * cols];
+		
+		while (!board.terminal()) {
+			boolean xToMove = icon.equals(Board.PLAYER1);
+			long start = System.nanoTime();
+			Pair move = (xToMove ? x : o).getNextMove(board);
+			long elapsed = System.nanoTime() - start;
+			(xToMove == aIsX ? stats.getLatencyA() : stats.getLatencyB()).record(elapsed);
+			if (!board.place(move.getFirst(), move.getSecond(), icon)) {
+				throw new IllegalStateException(String.format("%s played the illegal move %s on %s", icon, move, board));
+			}
+			cells[moves++] = board.getBitBoard().cell(move.getFirst(), move.getSecond());
+			icon = Board.getOtherPlayer(icon);
+		}
+		
+		int winner = board.getBitBoard().winner();
+		int result = winner == BitBoard.EMPTY ? 0 : (winner == BitBoard.PLAYER1) == aIsX ? 1 : -1;
+		stats.recordGame(result, moves);
+		if (recorder != null) {
+			try {
+				recorder.append(cells, moves, winner);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package match;
+
+/**
+ * Results of a run of games between two agents, A and B:
+ * wins, losses and draws, and how long each agent took per move.
+ * Not thread-safe; each MatchRunner worker keeps its own, and they are merged at the end.
+ */
+public class MatchStats {
+	
+	private long winsA;
+	private long winsB;
+	private long draws;
+	private long moves;
+	private final LatencyStats latencyA;
+	private final LatencyStats latencyB;
+	
+	public MatchStats() {
+		latencyA = new LatencyStats();
+		latencyB = new LatencyStats();
+	}
+	
+	/**
+	 * Records the end of a game.
+	 * 
+	 * @param result 1 if A won, -1 if B won, 0 for a draw
+	 * @param moveCount the number of moves played in the game
+	 */
+	public void recordGame(int result, int moveCount) {
+		if (result > 0) {
+			++winsA;
+		}
+		else if (result < 0) {
+			++winsB;
+		}
+		else {
+			++draws;
+		}
+		moves += moveCount;
+	}
+	
+	/**
+	 * Adds every game and move recorded by other to this.
+	 * 
+	 * @param other the stats to add
+	 */
+	public void merge(MatchStats other) {
+		winsA += other.winsA;
+		winsB += other.winsB;
+		draws += other.draws;
+		moves += other.moves;
+		latencyA.merge(other.latencyA);
+		latencyB.merge(other.latencyB);
+	}
+	
+	public long getGames() {
+		return winsA + winsB + draws;
+	}
+	
+	public long getWinsA() {
+		return winsA;
+	}
+	
+	public long getWinsB() {
+		return winsB;
+	}
+	
+	public long getDraws() {
+		return draws;
+	}
+	
+	public long getMoves() {
+		return moves;
+	}
+	
+	/**
+	 * @return the time A took to choose each of its moves
+	 */
+	public LatencyStats getLatencyA() {
+		return latencyA;
+	}
+	
+	/**
+	 * @return the time B took to choose each of its moves
+	 */
+	public LatencyStats getLatencyB() {
+		return latencyB;
+	}
+	
+	@Override
+	public String toString() {
+		long games = Math.max(1, getGames());
+		return String.format("games=%d A wins=%d (%.1f%%) B wins=%d (%.1f%%) draws=%d (%.1f%%)",
+				getGames(), winsA, 100.0 * winsA / games, winsB, 100.0 * winsB / games, draws, 100.0 * draws / games);
+	}
+}
@@ -0,0 +1,38 @@
+package match;
+
+import java.util.Random;
+
+import game.Agent;
+import game.BitBoard;
+import game.Board;
+import game.Moves;
+import game.Pair;
+
+/**
+ * Plays a uniformly random empty cell. The weakest useful opponent:
+ * an engine that ever loses to it is broken.
+ */
+public class RandomAgent implements Agent {
+	
+	private final Random random;
+	
+	/**
+	 * @param seed seed for the agent's choices, so that a run of games can be repeated
+	 */
+	public RandomAgent(long seed) {
+		random = new Random(seed);
+	}
+	
+	@Override
+	public Pair getNextMove(Board board) {
+		BitBoard state = board.getBitBoard();
+		// pick the n-th empty cell, rather than retrying random cells on a nearly full board
+		int n = random.nextInt(state.getCells() - state.size());
+		for (int cell = 0; cell < state.getCells(); ++cell) {
+			if (state.isEmpty(cell) && n-- == 0) {
+				return Moves.toPair(cell, state.getCols());
+			}
+		}
+		throw new IllegalStateException(String.format("no empty cell on %s", state));
+	}
+}
@@ -0,0 +1,61 @@
+package match;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import game.GameRecordWriter;
+import metrics.Metrics;
+
+/**
+ * Headless batch self-play: plays an engine configuration against another agent for many games,
+ * and prints the win/loss/draw totals and per-move latency of each side.
+ * Usage: SelfPlay games threads agentA agentB [rows cols [k]]
+ * where each agent is described as in AgentFactory.parse, e.g.
+ *   SelfPlay 100000 4 engine random
+ *   SelfPlay 1000 4 engine:ITERATIVE_DEEPENING:50 greedy 7 7 4
+ * Run with -Dmetrics.enabled=true to also print a Metrics snapshot,
+ * and with -Dselfplay.record=path to append every game to a game-record file.
+ */
+public class SelfPlay {
+	
+	public static void main(String[] args) throws InterruptedException, IOException {
+		if (args.length < 4) {
+			System.err.println("usage: SelfPlay games threads agentA agentB [rows cols [k]]");
+			System.exit(2);
+		}
+		int games = Integer.parseInt(args[0]);
+		int threads = Integer.parseInt(args[1]);
+		int rows = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+		int cols = args.length > 5 ? Integer.parseInt(args[5]) : rows;
+		int winLength = args.length > 6 ? Integer.parseInt(args[6]) : Math.min(rows, cols);
+		MatchRunner runner = new MatchRunner(AgentFactory.parse(args[2]), AgentFactory.parse(args[3]), rows, cols, winLength, threads, 0);
+		String recordPath = System.getProperty("selfplay.record");
+		if (recordPath != null) {
+			runner.setRecorder(new GameRecordWriter(Paths.get(recordPath), rows, cols, winLength));
+		}
+		
+		long start = System.nanoTime();
+		MatchStats stats;
+		try {
+			stats = runner.run(games);
+		}
+		finally {
+			if (runner.getRecorder() != null) {
+				runner.getRecorder().close();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		System.out.printf("%s vs %s on %dx%d k=%d, %d threads: %.2fs (%.0f games/s, %.0f moves/s)\n",
+				args[2], args[3], rows, cols, winLength, threads, seconds, games / seconds, stats.getMoves() / seconds);
+		System.out.println(stats);
+		System.out.println("A move latency: " + stats.getLatencyA());
+		System.out.println("B move latency: " + stats.getLatencyB());
+		if (runner.getRecorder() != null) {
+			System.out.printf("%d games recorded in %s\n", runner.getRecorder().getRecords(), runner.getRecorder().getPath());
+		}
+		if (Metrics.ENABLED) {
+			System.out.println(Metrics.snapshot());
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named, thread-safe count. Increments from many threads at once do not contend.
+ */
+public class Counter {
+	
+	private final String name;
+	private final LongAdder count;
+	
+	public Counter(String name) {
+		this.name = name;
+		count = new LongAdder();
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s=%d", name, get());
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void increment() {
+		count.increment();
+	}
+	
+	public void add(long n) {
+		count.add(n);
+	}
+	
+	public long get() {
+		return count.sum();
+	}
+	
+	public void reset() {
+		count.reset();
+	}
+}
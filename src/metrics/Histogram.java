@@ -0,0 +1,114 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named, thread-safe distribution of non-negative values, kept in HDR-style log-linear buckets:
+ * each power of two is split into SUB_BUCKETS equal parts, so percentiles are accurate to within 1/SUB_BUCKETS
+ * over the whole range of a long, in a fixed amount of memory.
+ * Recording never allocates or locks. Unlike match.LatencyStats, one Histogram is shared by every thread.
+ */
+public class Histogram {
+	
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	
+	private final String name;
+	private final AtomicLongArray buckets;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final LongAccumulator max;
+	
+	public Histogram(String name) {
+		this.name = name;
+		buckets = new AtomicLongArray(Long.SIZE * SUB_BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s(n=%d mean=%.1f p50=%d p99=%d max=%d)", name, getCount(), getMean(), getPercentile(0.5), getPercentile(0.99), getMax());
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @param value the value to record; negative values are recorded as 0
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		buckets.incrementAndGet(bucket(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+	
+	public long getCount() {
+		return count.sum();
+	}
+	
+	public long getMax() {
+		return max.get();
+	}
+	
+	public double getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : (double)sum.sum() / n;
+	}
+	
+	/**
+	 * Returns an upper bound of the value below which the given fraction of values fall.
+	 * Values recorded while this runs may or may not be counted.
+	 * 
+	 * @param quantile the fraction, between 0 and 1; e.g. 0.99 for the 99th percentile
+	 * @return the percentile value
+	 */
+	public long getPercentile(double quantile) {
+		long total = 0;
+		for (int i = 0; i < buckets.length(); ++i) {
+			total += buckets.get(i);
+		}
+		long rank = (long)Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < buckets.length(); ++i) {
+			seen += buckets.get(i);
+			if (seen >= rank && seen > 0) {
+				return Math.min(getMax(), upperBound(i));
+			}
+		}
+		return getMax();
+	}
+	
+	public void reset() {
+		for (int i = 0; i < buckets.length(); ++i) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+	
+	private static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int)value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int fraction = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + fraction;
+	}
+	
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long fraction = bucket % SUB_BUCKETS;
+		return ((SUB_BUCKETS + fraction + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,96 @@
+package metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Opt-in counters and histograms of what choosing moves costs, shared by the whole JVM.
+ * Metrics are off unless the JVM is started with -Dmetrics.enabled=true.
+ * ENABLED is a constant, so every instrumented call site is written as
+ * {@code if (Metrics.ENABLED) { ... }}
+ * and, when metrics are off, the JIT compiler removes the whole statement: disabled metrics cost nothing on the hot path.
+ * While enabled, ComputerPlayer also commits a SearchEvent per move to any running JFR recording.
+ */
+public final class Metrics {
+	
+	public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+	
+	public static final Counter MOVES = new Counter("search.moves");
+	public static final Counter NODES = new Counter("search.nodes");
+	public static final Counter STORE_HITS = new Counter("search.store.hits");
+	public static final Counter STORE_MISSES = new Counter("search.store.misses");
+	public static final Counter TABLE_HITS = new Counter("search.table.hits");
+	public static final Counter TABLE_MISSES = new Counter("search.table.misses");
+	public static final Counter TERMINAL_CHECKS = new Counter("board.terminal");
+	public static final Counter UTILITY_CHECKS = new Counter("board.utility");
+	public static final Counter TREE_NODES = new Counter("tree.nodes");
+	
+	// nanoseconds per move, store hits included
+	public static final Histogram MOVE_LATENCY = new Histogram("search.latency.ns");
+	public static final Histogram MOVE_NODES = new Histogram("search.nodes.per.move");
+	// completed depth of each iterative-deepening search
+	public static final Histogram MOVE_DEPTH = new Histogram("search.depth");
+	// legal moves at the root of each search
+	public static final Histogram BRANCHING = new Histogram("search.branching");
+	
+	private static final List<Counter> COUNTERS = Collections.unmodifiableList(Arrays.asList(
+			MOVES, NODES, STORE_HITS, STORE_MISSES, TABLE_HITS, TABLE_MISSES, TERMINAL_CHECKS, UTILITY_CHECKS, TREE_NODES));
+	private static final List<Histogram> HISTOGRAMS = Collections.unmodifiableList(Arrays.asList(
+			MOVE_LATENCY, MOVE_NODES, MOVE_DEPTH, BRANCHING));
+	
+	private Metrics() {
+	}
+	
+	public static List<Counter> getCounters() {
+		return COUNTERS;
+	}
+	
+	public static List<Histogram> getHistograms() {
+		return HISTOGRAMS;
+	}
+	
+	/**
+	 * Zeroes every counter and histogram.
+	 */
+	public static void reset() {
+		for (Counter counter : COUNTERS) {
+			counter.reset();
+		}
+		for (Histogram histogram : HISTOGRAMS) {
+			histogram.reset();
+		}
+	}
+	
+	/**
+	 * Returns the current value of every metric as a JSON object, e.g.
+	 * {@code {"enabled":true,"counters":{"search.moves":12,...},"histograms":{"search.latency.ns":{"count":12,"mean":...,"p50":...},...}}}
+	 * Values are read one by one while other threads may be recording, so they are not a consistent cut.
+	 * 
+	 * @return the JSON snapshot
+	 */
+	public static String snapshot() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"enabled\":").append(ENABLED).append(",\"counters\":{");
+		for (int i = 0; i < COUNTERS.size(); ++i) {
+			Counter counter = COUNTERS.get(i);
+			json.append(i == 0 ? "" : ",").append('"').append(counter.getName()).append("\":").append(counter.get());
+		}
+		json.append("},\"histograms\":{");
+		for (int i = 0; i < HISTOGRAMS.size(); ++i) {
+			Histogram histogram = HISTOGRAMS.get(i);
+			json.append(i == 0 ? "" : ",").append('"').append(histogram.getName()).append("\":{");
+			json.append("\"count\":").append(histogram.getCount());
+			json.append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()));
+			json.append(",\"p50\":").append(histogram.getPercentile(0.5));
+			json.append(",\"p90\":").append(histogram.getPercentile(0.9));
+			json.append(",\"p99\":").append(histogram.getPercentile(0.99));
+			json.append(",\"p999\":").append(histogram.getPercentile(0.999));
+			json.append(",\"max\":").append(histogram.getMax());
+			json.append('}');
+		}
+		json.append("}}");
+		return json.toString();
+	}
+}
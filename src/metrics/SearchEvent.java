@@ -0,0 +1,42 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event recorded around every ComputerPlayer.getNextMove while metrics are enabled,
+ * so flight recordings show each move's search next to GC, allocation and thread activity.
+ * The event's duration is the time taken to choose the move.
+ */
+@Name("tictactoe.Search")
+@Label("Search")
+@Category({"Tic-Tac-Toe", "Search"})
+@Description("The computer choosing its next move")
+public class SearchEvent extends Event {
+	
+	@Label("Search Mode")
+	public String mode;
+	
+	@Label("Board")
+	@Description("Rows, columns and win length of the board")
+	public String board;
+	
+	@Label("Empty Cells")
+	@Description("Number of legal moves at the root")
+	public int emptyCells;
+	
+	@Label("Nodes")
+	@Description("Number of positions visited")
+	public long nodes;
+	
+	@Label("Depth")
+	@Description("Number of moves searched ahead by the deepest completed iteration, or -1 if the search does not report it")
+	public int depth;
+	
+	@Label("Store Hit")
+	@Description("Whether the move came from the PositionStore without searching")
+	public boolean storeHit;
+}
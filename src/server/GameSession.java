@@ -0,0 +1,115 @@
+package server;
+
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.Pair;
+
+/**
+ * One game between a remote player and the computer, hosted by a SessionManager.
+ * A session only holds its Board; the ComputerPlayer that replies is lent to it by whichever worker thread runs the move,
+ * so thousands of sessions cost little more than their boards.
+ * Moves on one session are serialized; different sessions proceed in parallel.
+ */
+public class GameSession {
+	
+	public static enum Status {
+		IN_PROGRESS,
+		PLAYER_WINS,
+		COMPUTER_WINS,
+		DRAW
+	}
+	
+	private final long id;
+	private final Board board;
+	private final String playerIcon;
+	private final String computerIcon;
+	private Status status;
+	
+	/**
+	 * @param id the session's identifier
+	 * @param playerIcon the remote player's icon
+	 * @param board the empty board to play on
+	 */
+	public GameSession(long id, String playerIcon, Board board) {
+		this.id = id;
+		this.board = board;
+		this.playerIcon = playerIcon;
+		computerIcon = Board.getOtherPlayer(playerIcon);
+		status = Status.IN_PROGRESS;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return String.format("GameSession(%d, player=%s, %s, %s)", id, playerIcon, status, board);
+	}
+	
+	/**
+	 * Lets the computer open the game.
+	 * 
+	 * @param computer plays the computer's side
+	 * @return the computer's move
+	 */
+	public synchronized MoveResult start(ComputerPlayer computer) {
+		if (status != Status.IN_PROGRESS || board.size() != 0) {
+			return new MoveResult(id, false, null, status);
+		}
+		return new MoveResult(id, true, computerMoves(computer), status);
+	}
+	
+	/**
+	 * Plays the player's move at (row, col), and the computer's reply if the game is not over.
+	 * 
+	 * @param row row of the player's move
+	 * @param col column of the player's move
+	 * @param computer plays the computer's side
+	 * @return the outcome of the move
+	 */
+	public synchronized MoveResult play(int row, int col, ComputerPlayer computer) {
+		if (status != Status.IN_PROGRESS || !board.place(row, col, playerIcon)) {
+			return new MoveResult(id, false, null, status);
+		}
+		updateStatus();
+		Pair reply = status == Status.IN_PROGRESS ? computerMoves(computer) : null;
+		return new MoveResult(id, true, reply, status);
+	}
+	
+	public long getId() {
+		return id;
+	}
+	
+	public String getPlayerIcon() {
+		return playerIcon;
+	}
+	
+	public synchronized Status getStatus() {
+		return status;
+	}
+	
+	/**
+	 * @return a copy of the session's board
+	 */
+	public synchronized Board getBoard() {
+		return new Board(board);
+	}
+	
+	private Pair computerMoves(ComputerPlayer computer) {
+		Pair move = computer.getNextMove(board);
+		board.place(move.getFirst(), move.getSecond(), computerIcon);
+		updateStatus();
+		return move;
+	}
+	
+	private void updateStatus() {
+		if (!board.terminal()) {
+			return;
+		}
+		int winner = board.getBitBoard().winner();
+		if (winner == BitBoard.EMPTY) {
+			status = Status.DRAW;
+		}
+		else {
+			status = winner == Board.toPlayerIndex(playerIcon) ? Status.PLAYER_WINS : Status.COMPUTER_WINS;
+		}
+	}
+}
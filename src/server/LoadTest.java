@@ -0,0 +1,173 @@
+package server;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.ConcurrentPositionStore;
+import game.MappedPositionStore;
+import game.Pair;
+import game.PositionStore;
+import game.Zobrist;
+import match.LatencyStats;
+import metrics.Metrics;
+
+/**
+ * Puts a SessionManager under load: opens many sessions at once, each driven by a simulated client playing random moves,
+ * and reports the computer's moves per second and the latency of every request, queueing included.
+ * Clients never block a thread; each sends its next move from the completion of the previous one.
+ * Usage: LoadTest [sessions [threads [searchMode [rows cols [k]]]]]
+ * with -Dmetrics.enabled=true to print a Metrics snapshot at the end,
+ * and -Dloadtest.store=file to share a MappedPositionStore in file with other processes, and keep it between runs.
+ */
+public class LoadTest {
+	
+	public static void main(String[] args) throws InterruptedException, IOException {
+		int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		ComputerPlayer.SearchMode searchMode = args.length > 2 ? ComputerPlayer.SearchMode.valueOf(args[2].toUpperCase()) : ComputerPlayer.SearchMode.ALPHA_BETA;
+		int rows = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+		int cols = args.length > 4 ? Integer.parseInt(args[4]) : rows;
+		int winLength = args.length > 5 ? Integer.parseInt(args[5]) : Math.min(rows, cols);
+		
+		String storeFile = System.getProperty("loadtest.store");
+		PositionStore store = storeFile == null ? new ConcurrentPositionStore(Zobrist.DEFAULT_TABLE_SIZE)
+				: new MappedPositionStore(Paths.get(storeFile), Zobrist.DEFAULT_TABLE_SIZE);
+		LoadTest test = new LoadTest(new SessionManager(threads, rows, cols, winLength, searchMode, store), rows, cols, winLength, sessionCount);
+		long start = System.nanoTime();
+		test.run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		test.manager.close();
+		
+		LatencyStats latency = test.getLatency();
+		System.out.printf("%d sessions on %dx%d k=%d, %d threads, %s: %.2fs\n", sessionCount, rows, cols, winLength, threads, searchMode, seconds);
+		System.out.printf("computer moves: %d (%.0f moves/s), requests: %d (%.0f requests/s)\n",
+				test.computerMoves.get(), test.computerMoves.get() / seconds, latency.getCount(), latency.getCount() / seconds);
+		System.out.println("request latency: " + latency);
+		System.out.printf("results: player wins=%d computer wins=%d draws=%d\n", test.playerWins.get(), test.computerWins.get(), test.draws.get());
+		System.out.println(store);
+		if (Metrics.ENABLED) {
+			System.out.println(Metrics.snapshot());
+		}
+		if (store instanceof MappedPositionStore) {
+			((MappedPositionStore)store).close();
+		}
+	}
+	
+	private final SessionManager manager;
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final int sessionCount;
+	private final CountDownLatch finished;
+	private final Queue<LatencyStats> latencies;
+	private final ThreadLocal<LatencyStats> threadLatency;
+	private final AtomicLong computerMoves;
+	private final AtomicLong playerWins;
+	private final AtomicLong computerWins;
+	private final AtomicLong draws;
+	
+	private LoadTest(SessionManager manager, int rows, int cols, int winLength, int sessionCount) {
+		this.manager = manager;
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		this.sessionCount = sessionCount;
+		finished = new CountDownLatch(sessionCount);
+		latencies = new ConcurrentLinkedQueue<>();
+		// each thread records into its own stats, merged once the test is over
+		threadLatency = ThreadLocal.withInitial(() -> {
+			LatencyStats stats = new LatencyStats();
+			latencies.add(stats);
+			return stats;
+		});
+		computerMoves = new AtomicLong();
+		playerWins = new AtomicLong();
+		computerWins = new AtomicLong();
+		draws = new AtomicLong();
+	}
+	
+	/**
+	 * Opens every session, and waits until all of their games are over.
+	 */
+	private void run() throws InterruptedException {
+		for (int i = 0; i < sessionCount; ++i) {
+			String icon = i % 2 == 0 ? Board.PLAYER1 : Board.PLAYER2;
+			Client client = new Client(i, icon);
+			long start = System.nanoTime();
+			manager.open(icon, i % 4 < 2).whenComplete((result, error) -> client.receive(result, error, start));
+		}
+		finished.await();
+	}
+	
+	private LatencyStats getLatency() {
+		LatencyStats total = new LatencyStats();
+		for (LatencyStats stats : latencies) {
+			total.merge(stats);
+		}
+		return total;
+	}
+	
+	/**
+	 * A simulated remote player, keeping its own copy of the board to choose legal random moves from.
+	 */
+	private class Client {
+		private final Random random;
+		private final BitBoard board;
+		private final int player;
+		
+		Client(long seed, String icon) {
+			random = new Random(seed);
+			board = new BitBoard(rows, cols, winLength);
+			player = Board.toPlayerIndex(icon);
+		}
+		
+		void receive(MoveResult result, Throwable error, long start) {
+			threadLatency.get().record(System.nanoTime() - start);
+			if (error != null) {
+				error.printStackTrace();
+				finished.countDown();
+				return;
+			}
+			Pair reply = result.getComputerMove();
+			if (reply != null) {
+				computerMoves.incrementAndGet();
+				board.place(board.cell(reply.getFirst(), reply.getSecond()), BitBoard.getOtherPlayer(player));
+			}
+			
+			switch (result.getStatus()) {
+				case IN_PROGRESS:
+					sendMove(result.getSessionId());
+					return;
+				case PLAYER_WINS:
+					playerWins.incrementAndGet();
+					break;
+				case COMPUTER_WINS:
+					computerWins.incrementAndGet();
+					break;
+				default:
+					draws.incrementAndGet();
+			}
+			manager.close(result.getSessionId());
+			finished.countDown();
+		}
+		
+		private void sendMove(long sessionId) {
+			int n = random.nextInt(board.getCells() - board.size());
+			int cell = 0;
+			while (!board.isEmpty(cell) || n-- > 0) {
+				++cell;
+			}
+			board.place(cell, player);
+			long start = System.nanoTime();
+			manager.play(sessionId, cell / cols, cell % cols).whenComplete((result, error) -> receive(result, error, start));
+		}
+	}
+}
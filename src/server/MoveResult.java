@@ -0,0 +1,49 @@
+package server;
+
+import game.Pair;
+
+/**
+ * What a GameSession reports back after a move: whether the player's move was accepted,
+ * the computer's reply, if it made one, and the state of the game afterwards.
+ */
+public class MoveResult {
+	
+	private final long sessionId;
+	private final boolean accepted;
+	private final Pair computerMove;
+	private final GameSession.Status status;
+	
+	public MoveResult(long sessionId, boolean accepted, Pair computerMove, GameSession.Status status) {
+		this.sessionId = sessionId;
+		this.accepted = accepted;
+		this.computerMove = computerMove;
+		this.status = status;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("MoveResult(session=%d, accepted=%b, computer=%s, %s)", sessionId, accepted, computerMove, status);
+	}
+	
+	public long getSessionId() {
+		return sessionId;
+	}
+	
+	/**
+	 * @return false if the player's move was illegal, or the game was already over; the board is then unchanged
+	 */
+	public boolean isAccepted() {
+		return accepted;
+	}
+	
+	/**
+	 * @return the computer's move, or null if it did not move
+	 */
+	public Pair getComputerMove() {
+		return computerMove;
+	}
+	
+	public GameSession.Status getStatus() {
+		return status;
+	}
+}
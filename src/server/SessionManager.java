@@ -0,0 +1,172 @@
+package server;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.BitBoard;
+import game.Board;
+import game.ComputerPlayer;
+import game.ConcurrentPositionStore;
+import game.PositionStore;
+import game.Zobrist;
+
+/**
+ * Hosts many concurrent games behind an in-process API.
+ * Moves are queued to a fixed pool of worker threads, so any number of sessions can be open at once
+ * while only a handful of threads run; callers get a CompletableFuture rather than blocking.
+ * Each worker keeps its own ComputerPlayers, and all of them share one thread-safe PositionStore,
+ * so a position searched for one session is answered from the cache for every other.
+ */
+public class SessionManager implements AutoCloseable {
+	
+	private final int rows;
+	private final int cols;
+	private final int winLength;
+	private final ComputerPlayer.SearchMode searchMode;
+	private final PositionStore store;
+	private final ExecutorService executor;
+	private final ThreadLocal<ComputerPlayer[]> computers;
+	// every worker's ComputerPlayers, so close can shut their searches down
+	private final Queue<ComputerPlayer> allComputers;
+	private final Map<Long, GameSession> sessions;
+	private final AtomicLong nextId;
+	
+	/**
+	 * @param threads number of worker threads running moves
+	 * @param rows number of rows on each board
+	 * @param cols number of columns on each board
+	 * @param winLength number of marks in a row needed to win
+	 * @param searchMode how the computer searches for its moves
+	 * @param store cache of best moves shared by every worker
+	 */
+	public SessionManager(int threads, int rows, int cols, int winLength, ComputerPlayer.SearchMode searchMode, PositionStore store) {
+		this.rows = rows;
+		this.cols = cols;
+		this.winLength = winLength;
+		this.searchMode = searchMode;
+		this.store = store;
+		executor = Executors.newFixedThreadPool(threads);
+		allComputers = new ConcurrentLinkedQueue<>();
+		computers = ThreadLocal.withInitial(this::createComputers);
+		sessions = new ConcurrentHashMap<>();
+		nextId = new AtomicLong();
+	}
+	
+	public SessionManager(int threads) {
+		this(threads, 3, 3, 3, ComputerPlayer.SearchMode.ALPHA_BETA, new ConcurrentPositionStore(Zobrist.DEFAULT_TABLE_SIZE));
+	}
+	
+	/**
+	 * Opens a new session. If the computer goes first, its opening move is made before the future completes.
+	 * 
+	 * @param playerIcon the remote player's icon
+	 * @param playerGoesFirst true if the player makes the first move
+	 * @return the result of opening the session; its session ID identifies the session from now on
+	 */
+	public CompletableFuture<MoveResult> open(String playerIcon, boolean playerGoesFirst) {
+		// rejects an unknown icon before the session is registered
+		Board.toPlayerIndex(playerIcon);
+		GameSession session = new GameSession(nextId.incrementAndGet(), playerIcon, new Board(rows, cols, winLength));
+		sessions.put(session.getId(), session);
+		if (playerGoesFirst) {
+			return CompletableFuture.completedFuture(new MoveResult(session.getId(), true, null, session.getStatus()));
+		}
+		return CompletableFuture.supplyAsync(() -> session.start(computerFor(session)), executor);
+	}
+	
+	/**
+	 * Plays the player's move at (row, col) in a session, followed by the computer's reply.
+	 * 
+	 * @param sessionId the session to play in
+	 * @param row row of the player's move
+	 * @param col column of the player's move
+	 * @return the outcome of the move; completes exceptionally with an IllegalArgumentException if there is no such session
+	 */
+	public CompletableFuture<MoveResult> play(long sessionId, int row, int col) {
+		GameSession session = sessions.get(sessionId);
+		if (session == null) {
+			return CompletableFuture.failedFuture(new IllegalArgumentException(String.format("no session %d", sessionId)));
+		}
+		return CompletableFuture.supplyAsync(() -> session.play(row, col, computerFor(session)), executor);
+	}
+	
+	/**
+	 * @param sessionId the session to look up
+	 * @return the session, or null if there is no such session
+	 */
+	public GameSession getSession(long sessionId) {
+		return sessions.get(sessionId);
+	}
+	
+	/**
+	 * Forgets a session, finished or not.
+	 * 
+	 * @param sessionId the session to close
+	 */
+	public void close(long sessionId) {
+		sessions.remove(sessionId);
+	}
+	
+	public int getSessionCount() {
+		return sessions.size();
+	}
+	
+	/**
+	 * @return the cache of best moves shared by every worker
+	 */
+	public PositionStore getPositionStore() {
+		return store;
+	}
+	
+	/**
+	 * Stops accepting moves, waits for the moves already queued to run,
+	 * and then stops the worker threads of the computers' searches.
+	 * If interrupted while waiting, the searches are stopped at once, and the interrupt is kept.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// moves still running
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			for (ComputerPlayer computer : allComputers) {
+				computer.shutdown();
+			}
+		}
+	}
+	
+	/**
+	 * @return the calling worker's ComputerPlayer for the computer's side of session
+	 */
+	private ComputerPlayer computerFor(GameSession session) {
+		return computers.get()[BitBoard.getOtherPlayer(Board.toPlayerIndex(session.getPlayerIcon()))];
+	}
+	
+	/**
+	 * @return a worker's ComputerPlayers, indexed by the player index they play
+	 */
+	private ComputerPlayer[] createComputers() {
+		Board board = new Board(rows, cols, winLength);
+		ComputerPlayer[] players = new ComputerPlayer[3];
+		for (int player = BitBoard.PLAYER1; player <= BitBoard.PLAYER2; ++player) {
+			String icon = Board.toIcon(player);
+			players[player] = new ComputerPlayer(icon, Board.getOtherPlayer(icon), board, searchMode);
+			players[player].setPositionStore(store);
+			allComputers.add(players[player]);
+		}
+		return players;
+	}
+}
@@ -1,5 +1,6 @@
 package state;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface GameTreeNode {
@@ -24,4 +25,22 @@ public interface GameTreeNode {
 	 * @param child
 	 */
 	public void addChild(GameTreeNode child);
+	
+	/**
+	 * Returns an iterator over the immediate children of the current node.
+	 * Nodes that generate their children on demand can produce them one at a time,
+	 * so walking a tree through childIterator need not hold every child of a node at once.
+	 * 
+	 * @return Iterator<GameTreeNode>
+	 */
+	public default Iterator<GameTreeNode> childIterator() {
+		return getChildren().iterator();
+	}
+	
+	/**
+	 * Drops the children of the current node, if they can be generated again on the next access.
+	 * Nodes whose children were added explicitly keep them.
+	 */
+	public default void releaseChildren() {
+	}
 }
@@ -1,5 +1,7 @@
 package state;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -35,7 +37,6 @@ public abstract class MinMaxGameTreeNode implements GameTreeNode {
 	public MinMaxGameTreeNode(GameState state, AdversaryType adversaryType) {
 		this.state = state;
 		this.adversaryType = adversaryType;
-		children = new LinkedList<>();
 	}
 	
 	@Override
@@ -47,12 +48,46 @@ public abstract class MinMaxGameTreeNode implements GameTreeNode {
 		return state;
 	}
 
+	/**
+	 * Returns the immediate children of the current node, as a list that may be added to.
+	 * The list is only allocated when first needed, so the leaves of a tree carry no empty list.
+	 * 
+	 * @return List<GameTreeNode>
+	 */
 	public List<GameTreeNode> getChildren() {
+		if (children == null) {
+			children = new LinkedList<>();
+		}
 		return children;
 	}
 	
+	/**
+	 * Walks the children without allocating a list for a leaf.
+	 */
+	@Override
+	public Iterator<GameTreeNode> childIterator() {
+		return children == null ? Collections.emptyIterator() : children.iterator();
+	}
+	
 	public void addChild(GameTreeNode child) {
-		children.add(child);
+		getChildren().add(child);
+	}
+	
+	/**
+	 * Returns the children held by the current node, without allocating a list for a leaf,
+	 * so subclasses that produce their children another way can keep them in the same field.
+	 * 
+	 * @return the child list, or null if none has been created
+	 */
+	protected List<GameTreeNode> getChildList() {
+		return children;
+	}
+	
+	/**
+	 * @param children the list to hold the children of the current node, or null to drop them
+	 */
+	protected void setChildList(List<GameTreeNode> children) {
+		this.children = children;
 	}
 
 	public AdversaryType getAdversaryType() {
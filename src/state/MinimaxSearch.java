@@ -0,0 +1,64 @@
+package state;
+
+/**
+ * Exhaustive depth-first min-max search over any MutableGameState, placing and undoing moves in-place,
+ * so only the recursion stack is live. Visits every position; the reference the other engines are checked against.
+ * Ties are broken in favor of the lowest move.
+ */
+public class MinimaxSearch implements SearchEngine<MutableGameState> {
+	
+	private long nodesVisited;
+	
+	@Override
+	public int search(MutableGameState state, int player) {
+		int opponent = state.getOpponent(player);
+		int bestMove = -1;
+		int bestScore = Integer.MIN_VALUE;
+		++nodesVisited;
+		
+		for (int move = state.nextMove(0); move >= 0; move = state.nextMove(move + 1)) {
+			state.place(move, player);
+			int score = minimax(state, opponent, player);
+			state.undo(move);
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+			}
+		}
+		return bestMove;
+	}
+	
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited;
+	}
+	
+	@Override
+	public void resetStatistics() {
+		nodesVisited = 0;
+	}
+	
+	/**
+	 * @param state the position to evaluate
+	 * @param player the player whose turn it is in state
+	 * @param maxPlayer the player searching
+	 * @return the score of state, from maxPlayer's perspective
+	 */
+	private int minimax(MutableGameState state, int player, int maxPlayer) {
+		++nodesVisited;
+		if (state.terminal()) {
+			return state.utility(maxPlayer);
+		}
+		
+		boolean maximizing = player == maxPlayer;
+		int otherPlayer = state.getOpponent(player);
+		int optimalResult = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		for (int move = state.nextMove(0); move >= 0; move = state.nextMove(move + 1)) {
+			state.place(move, player);
+			int v = minimax(state, otherPlayer, maxPlayer);
+			state.undo(move);
+			optimalResult = maximizing ? Math.max(optimalResult, v) : Math.min(optimalResult, v);
+		}
+		return optimalResult;
+	}
+}
@@ -0,0 +1,48 @@
+package state;
+
+/**
+ * A GameState that is searched in place: moves are played on it and taken back, so a search needs no copies.
+ * Moves and players are small integers whose meaning is up to the implementation;
+ * a move is only ever undone in the reverse order it was placed.
+ */
+public interface MutableGameState extends GameState {
+	
+	/**
+	 * Finds the first legal move at or after from, so every legal move can be iterated without allocating:
+	 * for (int move = state.nextMove(0); move >= 0; move = state.nextMove(move + 1))
+	 * 
+	 * @param from the move to start at
+	 * @return the legal move, or -1 if there is none
+	 */
+	public int nextMove(int from);
+	
+	/**
+	 * Plays move for player. Does not validate the move.
+	 * 
+	 * @param move a legal move
+	 * @param player the player making the move
+	 */
+	public void place(int move, int player);
+	
+	/**
+	 * Takes back move; the inverse of place.
+	 * 
+	 * @param move the move placed last
+	 */
+	public void undo(int move);
+	
+	/**
+	 * Returns the score of the state relative to player:
+	 * 1 if player has won, -1 if the other player has won, 0 otherwise.
+	 * 
+	 * @param player the player to score for
+	 * @return the integer representation of the score
+	 */
+	public int utility(int player);
+	
+	/**
+	 * @param player one of the players
+	 * @return the other player
+	 */
+	public int getOpponent(int player);
+}
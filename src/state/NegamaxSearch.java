@@ -0,0 +1,72 @@
+package state;
+
+/**
+ * Negamax search with alpha-beta pruning over any MutableGameState.
+ * Scores every position from the point of view of the player to move, so one function serves both sides,
+ * and cuts off moves that cannot change the result. Moves are tried in order, with no caching,
+ * so it shows what pruning alone saves over MinimaxSearch, and chooses the same move.
+ */
+public class NegamaxSearch implements SearchEngine<MutableGameState> {
+	
+	// scores are utilities, between -1 and 1, so these bounds are never reached
+	private static final int INFINITY = 2;
+	
+	private long nodesVisited;
+	
+	@Override
+	public int search(MutableGameState state, int player) {
+		int opponent = state.getOpponent(player);
+		int bestMove = -1;
+		int alpha = -INFINITY;
+		++nodesVisited;
+		
+		for (int move = state.nextMove(0); move >= 0; move = state.nextMove(move + 1)) {
+			state.place(move, player);
+			int score = -negamax(state, opponent, -INFINITY, -alpha);
+			state.undo(move);
+			if (bestMove < 0 || score > alpha) {
+				alpha = score;
+				bestMove = move;
+			}
+		}
+		return bestMove;
+	}
+	
+	@Override
+	public long getNodesVisited() {
+		return nodesVisited;
+	}
+	
+	@Override
+	public void resetStatistics() {
+		nodesVisited = 0;
+	}
+	
+	/**
+	 * @param state the position to evaluate
+	 * @param player the player whose turn it is in state
+	 * @param alpha the score player is already assured of
+	 * @param beta the score the opponent is already assured of holding player to
+	 * @return the score of state, from player's perspective
+	 */
+	private int negamax(MutableGameState state, int player, int alpha, int beta) {
+		++nodesVisited;
+		if (state.terminal()) {
+			return state.utility(player);
+		}
+		
+		int opponent = state.getOpponent(player);
+		for (int move = state.nextMove(0); move >= 0; move = state.nextMove(move + 1)) {
+			state.place(move, player);
+			int score = -negamax(state, opponent, -beta, -alpha);
+			state.undo(move);
+			if (score > alpha) {
+				alpha = score;
+				if (alpha >= beta) {
+					break;
+				}
+			}
+		}
+		return alpha;
+	}
+}
@@ -0,0 +1,39 @@
+package state;
+
+/**
+ * A strategy for choosing a move in a MutableGameState.
+ * Engines are interchangeable: each finds a move for the same position through the same calls,
+ * so they can be swapped behind a player, or compared on speed and strength.
+ * Engines may keep caches between searches, and are not thread-safe unless documented otherwise.
+ * 
+ * @param <S> the kind of state the engine can search
+ */
+public interface SearchEngine<S extends MutableGameState> {
+	
+	/**
+	 * Finds the best move for player in state.
+	 * state may be changed during the search, but is back in its original position when this returns.
+	 * 
+	 * @param state the position to search; must not be terminal
+	 * @param player the player whose turn it is in state
+	 * @return the chosen move
+	 */
+	public int search(S state, int player);
+	
+	/**
+	 * Returns the number of positions visited since the last call to resetStatistics;
+	 * for sampling engines, the number of samples.
+	 * 
+	 * @return the node-visit count
+	 */
+	public long getNodesVisited();
+	
+	public void resetStatistics();
+	
+	/**
+	 * Forgets whatever earlier searches cached, so the next search starts cold.
+	 * Must not be called while a search is running.
+	 */
+	public default void clear() {
+	}
+}
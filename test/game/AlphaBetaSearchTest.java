@@ -0,0 +1,77 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * An AlphaBetaSearch that keeps a transposition table between searches must choose the same move,
+ * with the same score, as a fresh search without one.
+ */
+public class AlphaBetaSearchTest {
+
+	@Test
+	public void symmetricTableMatchesFreshSearch() {
+		AlphaBetaSearch reused = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(1 << 12), true);
+		for (BitBoard state : positions(new Random(42), 3, 3, 30)) {
+			assertSameAsFreshSearch(reused, state);
+		}
+	}
+
+	/**
+	 * Searches each position on a 4x4 board and then on a 3x3 board with the same marks in the same cell indices,
+	 * so the second search probes keys the first one stored, with moves beyond the 3x3 board.
+	 */
+	@Test
+	public void reuseAcrossBoardSizes() {
+		AlphaBetaSearch reused = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(1 << 12), true);
+		for (BitBoard small : positions(new Random(42), 3, 3, 30)) {
+			BitBoard large = new BitBoard(4, 4);
+			for (int cell = 0; cell < small.getCells(); ++cell) {
+				if (!small.isEmpty(cell)) {
+					large.place(cell, small.get(cell));
+				}
+			}
+			assertSameAsFreshSearch(reused, large);
+			assertSameAsFreshSearch(reused, small);
+		}
+	}
+
+	private static void assertSameAsFreshSearch(AlphaBetaSearch reused, BitBoard state) {
+		int player = state.size() % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+		AlphaBetaSearch fresh = new AlphaBetaSearch();
+		int expected = fresh.search(new BitBoard(state), player);
+		BitBoard copy = new BitBoard(state);
+		assertEquals(expected, reused.search(copy, player), state.toString());
+		assertEquals(fresh.getBestScore(), reused.getBestScore(), state.toString());
+		assertEquals(state, copy);
+	}
+
+	/**
+	 * @return count positions that are not yet over, each a few random moves into a game
+	 */
+	private static List<BitBoard> positions(Random random, int rows, int cols, int count) {
+		List<BitBoard> positions = new ArrayList<>();
+		while (positions.size() < count) {
+			BitBoard state = new BitBoard(rows, cols);
+			int marks = 2 + random.nextInt(state.getCells() / 2);
+			int player = BitBoard.PLAYER1;
+			for (int i = 0; i < marks && !state.terminal(); ++i) {
+				int cell;
+				do {
+					cell = random.nextInt(state.getCells());
+				} while (!state.isEmpty(cell));
+				state.place(cell, player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+			if (!state.terminal()) {
+				positions.add(state);
+			}
+		}
+		return positions;
+	}
+}
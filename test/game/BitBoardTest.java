@@ -0,0 +1,196 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * place and undo must keep a BitBoard's marks, hash, move count and winner exactly in step,
+ * however deep the moves are nested.
+ */
+public class BitBoardTest {
+	
+	@Test
+	public void placeSetsTheCellAndUndoClearsIt() {
+		BitBoard state = new BitBoard();
+		BitBoard empty = new BitBoard(state);
+		state.place(4, BitBoard.PLAYER1);
+		assertEquals(BitBoard.PLAYER1, state.get(4));
+		assertEquals(BitBoard.PLAYER1, state.get(1, 1));
+		assertEquals(1, state.size());
+		assertFalse(state.isEmpty(4));
+		
+		state.undo(4);
+		assertEquals(BitBoard.EMPTY, state.get(4));
+		assertEquals(empty, state);
+		assertEquals(empty.getHash(), state.getHash());
+		assertEquals(0, state.size());
+	}
+	
+	@Test
+	public void everyRowColumnAndDiagonalWins() {
+		int[][] lines = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, {0, 4, 8}, {2, 4, 6}};
+		for (int[] line : lines) {
+			BitBoard state = new BitBoard();
+			for (int cell : line) {
+				assertFalse(state.terminal());
+				state.place(cell, BitBoard.PLAYER2);
+			}
+			assertEquals(BitBoard.PLAYER2, state.winner());
+			assertTrue(state.terminal());
+			assertEquals(1, state.utility(BitBoard.PLAYER2));
+			assertEquals(-1, state.utility(BitBoard.PLAYER1));
+			
+			state.undo(line[2]);
+			assertEquals(BitBoard.EMPTY, state.winner());
+			assertFalse(state.terminal());
+		}
+	}
+	
+	@Test
+	public void aFullBoardWithoutALineIsADraw() {
+		BitBoard state = new BitBoard();
+		// X O X / X O O / O X X
+		int[] players = {1, 2, 1, 1, 2, 2, 2, 1, 1};
+		for (int cell = 0; cell < players.length; ++cell) {
+			state.place(cell, players[cell]);
+		}
+		assertTrue(state.terminal());
+		assertEquals(BitBoard.EMPTY, state.winner());
+		assertEquals(0, state.utility(BitBoard.PLAYER1));
+		assertEquals(9, state.size());
+	}
+	
+	@Test
+	public void aCopyIsIndependentOfTheOriginal() {
+		BitBoard state = new BitBoard(4, 4);
+		state.place(5, BitBoard.PLAYER1);
+		BitBoard copy = new BitBoard(state);
+		assertEquals(state, copy);
+		copy.place(6, BitBoard.PLAYER2);
+		assertTrue(state.isEmpty(6));
+		assertNotEquals(state, copy);
+	}
+	
+	/**
+	 * A 9x9 board spans two mask words, so the scan must carry on past cell 63 and stop at cell 80.
+	 */
+	@Test
+	public void emptyCellsAreListedInOrderAcrossWords() {
+		BitBoard state = new BitBoard(9, 9, 5);
+		int[] taken = {0, 1, 62, 63, 64, 80};
+		for (int i = 0; i < taken.length; ++i) {
+			state.place(taken[i], i % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2);
+		}
+		
+		int[] expected = new int[state.getCells() - taken.length];
+		int count = 0;
+		for (int cell = 0; cell < state.getCells(); ++cell) {
+			if (state.isEmpty(cell)) {
+				expected[count++] = cell;
+			}
+		}
+		int[] moves = new int[state.getCells()];
+		assertEquals(expected.length, state.getEmptyCells(moves));
+		count = 0;
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			assertEquals(expected[count], cell);
+			assertEquals(expected[count], moves[count]);
+			++count;
+		}
+		assertEquals(expected.length, count);
+	}
+	
+	@Test
+	public void undoKeepsTheFirstWinnerWhenBothPlayersHaveLines() {
+		BitBoard state = new BitBoard(3, 3, 3);
+		for (int cell = 0; cell < 3; ++cell) {
+			state.place(cell, BitBoard.PLAYER1);
+			state.place(cell + 6, BitBoard.PLAYER2);
+		}
+		assertEquals(BitBoard.PLAYER1, state.winner());
+		
+		state.undo(0);
+		assertEquals(BitBoard.PLAYER2, state.winner());
+		state.undo(6);
+		assertEquals(BitBoard.EMPTY, state.winner());
+	}
+	
+	/**
+	 * Mark counts come from masks on boards of up to 64 cells and from counters on larger ones;
+	 * either way they must match the cells of each line.
+	 */
+	@Test
+	public void marksMatchTheCellsOfEachLine() {
+		Random random = new Random(42);
+		int[][] shapes = {{3, 3, 3}, {8, 8, 4}, {9, 9, 5}};
+		for (int[] shape : shapes) {
+			BitBoard state = new BitBoard(shape[0], shape[1], shape[2]);
+			int player = BitBoard.PLAYER1;
+			for (int move = 0; move < state.getCells() / 2; ++move) {
+				int cell;
+				do {
+					cell = random.nextInt(state.getCells());
+				} while (!state.isEmpty(cell));
+				state.place(cell, player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+			
+			int[][] expected = new int[3][state.getLineCount()];
+			for (int cell = 0; cell < state.getCells(); ++cell) {
+				for (int line : state.getLinesThrough(cell)) {
+					++expected[state.get(cell)][line];
+				}
+			}
+			for (int line = 0; line < state.getLineCount(); ++line) {
+				assertEquals(expected[BitBoard.PLAYER1][line], state.getMarks(line, BitBoard.PLAYER1), state.toString());
+				assertEquals(expected[BitBoard.PLAYER2][line], state.getMarks(line, BitBoard.PLAYER2), state.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Plays random games on several board shapes to the end, checking the winner against a full rescan after each move,
+	 * and the board against a copy taken before each move as the moves are undone in reverse.
+	 */
+	@Test
+	public void undoRestoresEveryEarlierPosition() {
+		Random random = new Random(42);
+		int[][] shapes = {{3, 3, 3}, {4, 4, 3}, {3, 5, 3}, {7, 7, 4}, {9, 9, 5}, {15, 15, 5}};
+		for (int[] shape : shapes) {
+			for (int game = 0; game < 20; ++game) {
+				BitBoard state = new BitBoard(shape[0], shape[1], shape[2]);
+				int[] moves = new int[state.getCells()];
+				BitBoard[] before = new BitBoard[state.getCells()];
+				int count = 0;
+				int player = BitBoard.PLAYER1;
+				while (!state.terminal()) {
+					int cell;
+					do {
+						cell = random.nextInt(state.getCells());
+					} while (!state.isEmpty(cell));
+					before[count] = new BitBoard(state);
+					moves[count++] = cell;
+					state.place(cell, player);
+					assertEquals(count, state.size());
+					assertEquals(state.scanWinner(), state.winner(), state.toString());
+					player = BitBoard.getOtherPlayer(player);
+				}
+				
+				while (count > 0) {
+					state.undo(moves[--count]);
+					BitBoard expected = before[count];
+					assertEquals(expected, state);
+					assertEquals(expected.getHash(), state.getHash());
+					assertEquals(expected.size(), state.size());
+					assertEquals(expected.winner(), state.winner(), state.toString());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Games written by a GameRecordWriter must read back move for move through a GameRecordReader,
+ * on boards whose moves take one byte and two.
+ */
+public class GameRecordTest {
+	
+	@TempDir
+	Path directory;
+	
+	@Test
+	public void readerReturnsTheGamesWritten() throws IOException {
+		// 17x17 has more than 256 cells, so its moves are written as shorts
+		int[][] shapes = {{3, 3, 3}, {7, 7, 4}, {17, 17, 5}};
+		for (int[] shape : shapes) {
+			Path path = directory.resolve(String.format("%dx%d.ttgr", shape[0], shape[1]));
+			List<int[]> games = randomGames(new Random(42), shape[0], shape[1], shape[2], 50);
+			try (GameRecordWriter writer = new GameRecordWriter(path, shape[0], shape[1], shape[2])) {
+				for (int[] game : games) {
+					writer.append(game, game.length - 1, game[game.length - 1]);
+				}
+				assertEquals(games.size(), writer.getRecords());
+			}
+			assertGames(path, shape, games);
+		}
+	}
+	
+	@Test
+	public void reopeningAppendsToTheExistingGames() throws IOException {
+		Path path = directory.resolve("append.ttgr");
+		List<int[]> games = randomGames(new Random(42), 4, 4, 3, 20);
+		try (GameRecordWriter writer = new GameRecordWriter(path, 4, 4, 3)) {
+			for (int[] game : games.subList(0, 10)) {
+				writer.append(game, game.length - 1, game[game.length - 1]);
+			}
+		}
+		try (GameRecordWriter writer = new GameRecordWriter(path, 4, 4, 3)) {
+			for (int[] game : games.subList(10, 20)) {
+				writer.append(game, game.length - 1, game[game.length - 1]);
+			}
+		}
+		assertGames(path, new int[] {4, 4, 3}, games);
+	}
+	
+	@Test
+	public void positionsMatchTheReplayedBoard() throws IOException {
+		Path path = directory.resolve("positions.ttgr");
+		List<int[]> games = randomGames(new Random(7), 9, 9, 5, 5);
+		try (GameRecordWriter writer = new GameRecordWriter(path, 9, 9, 5)) {
+			for (int[] game : games) {
+				writer.append(game, game.length - 1, game[game.length - 1]);
+			}
+		}
+		try (GameRecordReader reader = new GameRecordReader(path)) {
+			long[] words = new long[PositionCodec.wordsFor(81)];
+			while (reader.next()) {
+				for (int plies = 0; plies <= reader.getMoveCount(); ++plies) {
+					BitBoard state = reader.getBitBoard(plies);
+					reader.getPosition(plies, words, 0);
+					assertArrayEquals(PositionCodec.encode(state), words);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void readerRejectsAGameThatPlaysACellTwice() throws IOException {
+		Path path = directory.resolve("corrupt.ttgr");
+		try (GameRecordWriter writer = new GameRecordWriter(path, 3, 3, 3)) {
+			writer.append(new int[] {4, 0, 4}, 3, BitBoard.EMPTY);
+		}
+		try (GameRecordReader reader = new GameRecordReader(path)) {
+			IOException e = assertThrows(IOException.class, reader::next);
+			assertTrue(e.getMessage().contains("corrupt record"), e.getMessage());
+		}
+	}
+	
+	private static void assertGames(Path path, int[] shape, List<int[]> games) throws IOException {
+		try (GameRecordReader reader = new GameRecordReader(path)) {
+			assertEquals(shape[0], reader.getRows());
+			assertEquals(shape[1], reader.getCols());
+			assertEquals(shape[2], reader.getWinLength());
+			for (int[] game : games) {
+				assertTrue(reader.next());
+				assertEquals(game.length - 1, reader.getMoveCount());
+				for (int ply = 0; ply < reader.getMoveCount(); ++ply) {
+					assertEquals(game[ply], reader.getMove(ply));
+				}
+				assertEquals(game[game.length - 1], reader.getWinner());
+			}
+			assertFalse(reader.next());
+			assertEquals(games.size(), reader.getRecords());
+		}
+	}
+	
+	/**
+	 * Plays random games to the end.
+	 * 
+	 * @return one array per game: the cells played, X first, followed by the winner
+	 */
+	private static List<int[]> randomGames(Random random, int rows, int cols, int winLength, int count) {
+		List<int[]> games = new ArrayList<>();
+		for (int game = 0; game < count; ++game) {
+			BitBoard state = new BitBoard(rows, cols, winLength);
+			int[] moves = new int[state.getCells() + 1];
+			int length = 0;
+			int player = BitBoard.PLAYER1;
+			while (!state.terminal()) {
+				int cell;
+				do {
+					cell = random.nextInt(state.getCells());
+				} while (!state.isEmpty(cell));
+				state.place(cell, player);
+				moves[length++] = cell;
+				player = BitBoard.getOtherPlayer(player);
+			}
+			moves[length++] = state.winner();
+			int[] record = new int[length];
+			System.arraycopy(moves, 0, record, 0, length);
+			games.add(record);
+		}
+		return games;
+	}
+}
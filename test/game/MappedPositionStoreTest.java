@@ -0,0 +1,74 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Stores opened on one file must share their entries, and keep them when the file is opened again;
+ * a file that is not a store must be rejected, unless its creator stopped before writing the header's magic.
+ */
+public class MappedPositionStoreTest {
+	
+	@TempDir
+	Path directory;
+	
+	@Test
+	public void storesOnOneFileShareEntries() throws IOException {
+		Path path = directory.resolve("positions.store");
+		try (MappedPositionStore first = new MappedPositionStore(path, 1000);
+				MappedPositionStore second = new MappedPositionStore(path, 1 << 16)) {
+			assertEquals(1024, first.getCapacity());
+			assertEquals(1024, second.getCapacity());
+			for (long key = 1; key <= 100; ++key) {
+				first.put(key * 0x9E3779B97F4A7C15L, (int)key);
+			}
+			for (long key = 1; key <= 100; ++key) {
+				assertEquals((int)key, second.get(key * 0x9E3779B97F4A7C15L));
+			}
+			assertEquals(PositionStore.NO_MOVE, second.get(42));
+		}
+		
+		try (MappedPositionStore reopened = new MappedPositionStore(path, 1 << 16)) {
+			assertEquals(1024, reopened.getCapacity());
+			assertEquals(7, reopened.get(7 * 0x9E3779B97F4A7C15L));
+		}
+	}
+	
+	@Test
+	public void aForeignFileIsRejected() throws IOException {
+		Path path = directory.resolve("foreign");
+		byte[] bytes = new byte[64 + 1024 * Long.BYTES];
+		bytes[0] = 'P';
+		Files.write(path, bytes);
+		assertThrows(IOException.class, () -> new MappedPositionStore(path, 1024));
+		
+		Files.write(path, new byte[] {1, 2, 3});
+		assertThrows(IOException.class, () -> new MappedPositionStore(path, 1024));
+	}
+	
+	/**
+	 * A creator that stopped after sizing the file and writing the capacity, but before the magic, left a file of zero slots.
+	 */
+	@Test
+	public void aFileWithoutMagicIsInitializedAgain() throws IOException {
+		Path path = directory.resolve("interrupted.store");
+		ByteBuffer header = ByteBuffer.allocate(64 + 4096 * Long.BYTES);
+		header.putLong(8, 4096);
+		Files.write(path, header.array());
+		
+		try (MappedPositionStore store = new MappedPositionStore(path, 256)) {
+			assertEquals(256, store.getCapacity());
+			store.put(12345, 3);
+			assertEquals(3, store.get(12345));
+		}
+		assertEquals(64 + 256 * Long.BYTES, Files.size(path));
+	}
+}
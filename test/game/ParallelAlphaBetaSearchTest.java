@@ -0,0 +1,105 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A ParallelAlphaBetaSearch must choose the same move, with the same score, as a fresh sequential search,
+ * even when its workers' tables still hold positions from a board of another size.
+ */
+public class ParallelAlphaBetaSearchTest {
+	
+	private ParallelAlphaBetaSearch parallel;
+	
+	@BeforeEach
+	public void setUp() {
+		parallel = new ParallelAlphaBetaSearch(2, 2, 1 << 12);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		parallel.shutdown();
+	}
+	
+	@Test
+	public void matchesSequentialSearch() {
+		for (BitBoard state : positions(new Random(42), 3, 3, 3, 30)) {
+			assertSameAsFreshSearch(state);
+		}
+	}
+	
+	/**
+	 * Searches each position on a 4x4 board and then on a 3x3 board with the same marks in the same cell indices,
+	 * so the second search probes keys the first one stored, with moves beyond the 3x3 board;
+	 * the reused sequential search is held to the same standard.
+	 */
+	@Test
+	public void reuseAcrossBoardSizes() {
+		AlphaBetaSearch reused = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(1 << 12), true);
+		for (BitBoard small : positions(new Random(42), 3, 3, 3, 30)) {
+			BitBoard large = new BitBoard(4, 4, 3);
+			for (int cell = 0; cell < small.getCells(); ++cell) {
+				if (!small.isEmpty(cell)) {
+					large.place(cell, small.get(cell));
+				}
+			}
+			for (BitBoard state : new BitBoard[] {large, small}) {
+				if (state.terminal()) {
+					continue;
+				}
+				assertSameAsFreshSearch(state);
+				
+				int player = playerToMove(state);
+				AlphaBetaSearch fresh = new AlphaBetaSearch();
+				int expected = fresh.search(new BitBoard(state), player);
+				assertEquals(expected, reused.search(new BitBoard(state), player), state.toString());
+				assertEquals(fresh.getBestScore(), reused.getBestScore(), state.toString());
+			}
+		}
+	}
+	
+	private void assertSameAsFreshSearch(BitBoard state) {
+		int player = playerToMove(state);
+		AlphaBetaSearch fresh = new AlphaBetaSearch();
+		int expected = fresh.search(new BitBoard(state), player);
+		BitBoard copy = new BitBoard(state);
+		assertEquals(expected, parallel.search(copy, player), state.toString());
+		assertEquals(fresh.getBestScore(), parallel.getBestScore(), state.toString());
+		assertEquals(state, copy);
+	}
+	
+	private static int playerToMove(BitBoard state) {
+		return state.size() % 2 == 0 ? BitBoard.PLAYER1 : BitBoard.PLAYER2;
+	}
+	
+	/**
+	 * @return count positions that are not yet over, each a few random moves into a game
+	 */
+	private static List<BitBoard> positions(Random random, int rows, int cols, int winLength, int count) {
+		List<BitBoard> positions = new ArrayList<>();
+		while (positions.size() < count) {
+			BitBoard state = new BitBoard(rows, cols, winLength);
+			int marks = 2 + random.nextInt(state.getCells() / 2);
+			int player = BitBoard.PLAYER1;
+			for (int i = 0; i < marks && !state.terminal(); ++i) {
+				int cell;
+				do {
+					cell = random.nextInt(state.getCells());
+				} while (!state.isEmpty(cell));
+				state.place(cell, player);
+				player = BitBoard.getOtherPlayer(player);
+			}
+			if (!state.terminal()) {
+				positions.add(state);
+			}
+		}
+		return positions;
+	}
+}
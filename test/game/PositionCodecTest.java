@@ -0,0 +1,78 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Encoding a position and decoding it again must give back the same position,
+ * and the single-cell accessors must agree with the board.
+ */
+public class PositionCodecTest {
+	
+	@Test
+	public void decodeRestoresTheEncodedPosition() {
+		Random random = new Random(42);
+		// 81 and 225 cells span more than one BitBoard word
+		int[][] shapes = {{3, 3, 3}, {4, 4, 3}, {7, 7, 4}, {9, 9, 5}, {15, 15, 5}};
+		for (int[] shape : shapes) {
+			for (int i = 0; i < 20; ++i) {
+				BitBoard state = new BitBoard(shape[0], shape[1], shape[2]);
+				int marks = random.nextInt(state.getCells() + 1);
+				int player = BitBoard.PLAYER1;
+				for (int mark = 0; mark < marks; ++mark) {
+					int cell;
+					do {
+						cell = random.nextInt(state.getCells());
+					} while (!state.isEmpty(cell));
+					state.place(cell, player);
+					player = BitBoard.getOtherPlayer(player);
+				}
+				
+				long[] words = PositionCodec.encode(state);
+				assertEquals(PositionCodec.wordsFor(state.getCells()), words.length);
+				for (int cell = 0; cell < state.getCells(); ++cell) {
+					assertEquals(state.get(cell), PositionCodec.get(words, 0, cell));
+				}
+				assertEquals((marks + 1) / 2, PositionCodec.count(words, 0, state.getCells(), BitBoard.PLAYER1));
+				assertEquals(marks / 2, PositionCodec.count(words, 0, state.getCells(), BitBoard.PLAYER2));
+				
+				BitBoard decoded = PositionCodec.decode(words, 0, shape[0], shape[1], shape[2]);
+				assertEquals(state, decoded);
+				assertEquals(state.getHash(), decoded.getHash());
+			}
+		}
+	}
+	
+	@Test
+	public void encodeWritesAtTheOffsetOnly() {
+		BitBoard state = new BitBoard(9, 9, 5);
+		state.place(0, BitBoard.PLAYER1);
+		state.place(40, BitBoard.PLAYER2);
+		state.place(80, BitBoard.PLAYER1);
+		int count = PositionCodec.wordsFor(state.getCells());
+		long[] words = new long[count + 2];
+		words[0] = -1L;
+		words[count + 1] = -1L;
+		PositionCodec.encode(state, words, 1);
+		assertEquals(-1L, words[0]);
+		assertEquals(-1L, words[count + 1]);
+		assertEquals(state, PositionCodec.decode(words, 1, 9, 9, 5));
+	}
+	
+	@Test
+	public void setChangesOneCell() {
+		BitBoard state = new BitBoard(4, 4, 3);
+		state.place(5, BitBoard.PLAYER1);
+		long[] words = PositionCodec.encode(state);
+		PositionCodec.set(words, 0, 10, BitBoard.PLAYER2);
+		state.place(10, BitBoard.PLAYER2);
+		assertArrayEquals(PositionCodec.encode(state), words);
+		PositionCodec.set(words, 0, 10, BitBoard.EMPTY);
+		state.undo(10);
+		assertArrayEquals(PositionCodec.encode(state), words);
+	}
+}
@@ -0,0 +1,93 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The values a RetrogradeSolver works backward to must match the values AlphaBetaSearch finds forward,
+ * and its best moves must keep those values.
+ */
+public class RetrogradeSolverTest {
+	
+	@Test
+	public void solves3x3AsADraw() {
+		RetrogradeSolver solver = new RetrogradeSolver(3, 3, 3, 1).solve();
+		long empty = BatchEvaluator.encode(new BitBoard(3, 3, 3));
+		assertEquals(0, solver.getValue(empty));
+		assertEquals(9, solver.getDistance(empty));
+		// the 5478 legal positions of tic-tac-toe, including the empty board and the finished games
+		assertEquals(5478, solver.getPositions());
+	}
+	
+	@Test
+	public void valuesMatchAlphaBeta3x3() {
+		checkAgainstAlphaBeta(3, 3, 3, Integer.MAX_VALUE);
+	}
+	
+	@Test
+	public void valuesMatchAlphaBeta3x4() {
+		// every position of the first 6 plies; searching deeper ones only repeats the table lookups
+		checkAgainstAlphaBeta(3, 4, 3, 6);
+	}
+	
+	@Test
+	public void parallelSolveMatchesSequential() {
+		RetrogradeSolver sequential = new RetrogradeSolver(3, 4, 3, 1).solve();
+		RetrogradeSolver parallel = new RetrogradeSolver(3, 4, 3, 4).solve();
+		assertEquals(sequential.getPositions(), parallel.getPositions());
+		assertEquals(sequential.getWins(), parallel.getWins());
+		assertEquals(sequential.getDraws(), parallel.getDraws());
+		assertEquals(sequential.getLosses(), parallel.getLosses());
+	}
+	
+	/**
+	 * Walks every position reachable within maxPlies moves, comparing the solver with a full-width AlphaBetaSearch.
+	 */
+	private static void checkAgainstAlphaBeta(int rows, int cols, int winLength, int maxPlies) {
+		RetrogradeSolver solver = new RetrogradeSolver(rows, cols, winLength, 1).solve();
+		AlphaBetaSearch search = new AlphaBetaSearch(AlphaBetaSearch.defaultOrdering(), new TranspositionTable(1 << 16), true);
+		BitBoard state = new BitBoard(rows, cols, winLength);
+		Set<Long> visited = new HashSet<>();
+		check(solver, search, state, BitBoard.PLAYER1, maxPlies, visited);
+	}
+	
+	private static void check(RetrogradeSolver solver, AlphaBetaSearch search, BitBoard state, int player, int pliesLeft, Set<Long> visited) {
+		long position = BatchEvaluator.encode(state);
+		if (!visited.add(position)) {
+			return;
+		}
+		if (state.terminal()) {
+			assertEquals(state.utility(player), solver.getValue(position), state.toString());
+			assertEquals(0, solver.getDistance(position), state.toString());
+			assertEquals(RetrogradeSolver.NO_MOVE, solver.getBestMove(position), state.toString());
+			return;
+		}
+		
+		int value = solver.getValue(position);
+		int score = search.evaluate(state, player, -Integer.MAX_VALUE, Integer.MAX_VALUE);
+		assertEquals(Integer.signum(score), value, state.toString());
+		
+		int move = solver.getBestMove(position);
+		assertNotEquals(RetrogradeSolver.NO_MOVE, move, state.toString());
+		assertEquals(BitBoard.EMPTY, state.get(move), state.toString());
+		state.place(move, player);
+		long after = BatchEvaluator.encode(state);
+		assertEquals(-value, solver.getValue(after), state.toString());
+		assertEquals(solver.getDistance(position) - 1, solver.getDistance(after), state.toString());
+		state.undo(move);
+		
+		if (pliesLeft == 0) {
+			return;
+		}
+		for (int cell = state.nextEmpty(0); cell >= 0; cell = state.nextEmpty(cell + 1)) {
+			state.place(cell, player);
+			check(solver, search, state, BitBoard.getOtherPlayer(player), pliesLeft - 1, visited);
+			state.undo(cell);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every transform must be a permutation of the cells that its inverse undoes,
+ * and every transform of a position must share that position's canonical representative.
+ */
+public class SymmetryTest {
+	
+	private static final int[][] SHAPES = {{3, 3}, {4, 4}, {3, 4}, {5, 2}, {7, 7}};
+	
+	@Test
+	public void squareBoardsHaveEightTransformsAndRectangularOnesFour() {
+		assertEquals(8, new Symmetry(3, 3).size());
+		assertEquals(8, new Symmetry(4, 4).size());
+		assertEquals(4, new Symmetry(3, 4).size());
+		assertEquals(4, new Symmetry(5, 2).size());
+	}
+	
+	@Test
+	public void inverseTransformCellUndoesTransformCell() {
+		for (int[] shape : SHAPES) {
+			Symmetry symmetry = new Symmetry(shape[0], shape[1]);
+			int cells = shape[0] * shape[1];
+			for (int t = 0; t < symmetry.size(); ++t) {
+				Set<Integer> images = new HashSet<>();
+				for (int cell = 0; cell < cells; ++cell) {
+					int image = symmetry.transformCell(cell, t);
+					images.add(image);
+					assertEquals(cell, symmetry.inverseTransformCell(image, t));
+					assertEquals(cell, symmetry.transformCell(image, symmetry.inverse(t)));
+				}
+				assertEquals(cells, images.size(), String.format("transform %d of %dx%d is not a permutation", t, shape[0], shape[1]));
+			}
+			for (int cell = 0; cell < cells; ++cell) {
+				assertEquals(cell, symmetry.transformCell(cell, Symmetry.IDENTITY));
+			}
+		}
+	}
+	
+	@Test
+	public void transformingByTheInverseRestoresThePosition() {
+		Random random = new Random(42);
+		for (int[] shape : SHAPES) {
+			Symmetry symmetry = new Symmetry(shape[0], shape[1]);
+			for (int i = 0; i < 20; ++i) {
+				BitBoard state = randomPosition(random, shape[0], shape[1]);
+				for (int t = 0; t < symmetry.size(); ++t) {
+					BitBoard transformed = symmetry.transform(state, t);
+					assertEquals(state.size(), transformed.size());
+					assertEquals(state, symmetry.transform(transformed, symmetry.inverse(t)));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void everyTransformHasTheSameCanonicalRepresentative() {
+		Random random = new Random(42);
+		for (int[] shape : SHAPES) {
+			Symmetry symmetry = new Symmetry(shape[0], shape[1]);
+			for (int i = 0; i < 20; ++i) {
+				BitBoard state = randomPosition(random, shape[0], shape[1]);
+				BitBoard canonical = symmetry.canonicalize(state);
+				symmetry.canonicalTransform(state);
+				long canonicalHash = symmetry.getCanonicalHash();
+				assertEquals(canonical.getHash(), canonicalHash);
+				for (int t = 0; t < symmetry.size(); ++t) {
+					BitBoard transformed = symmetry.transform(state, t);
+					assertEquals(canonical, symmetry.canonicalize(transformed));
+					symmetry.canonicalTransform(transformed);
+					assertEquals(canonicalHash, symmetry.getCanonicalHash());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return a board of the given size with marks on about half of the cells, X and O alternating
+	 */
+	private static BitBoard randomPosition(Random random, int rows, int cols) {
+		BitBoard state = new BitBoard(rows, cols);
+		int marks = random.nextInt(rows * cols / 2 + 1);
+		int player = BitBoard.PLAYER1;
+		for (int i = 0; i < marks; ++i) {
+			int cell;
+			do {
+				cell = random.nextInt(state.getCells());
+			} while (!state.isEmpty(cell));
+			state.place(cell, player);
+			player = BitBoard.getOtherPlayer(player);
+		}
+		return state;
+	}
+}